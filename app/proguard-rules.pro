@@ -21,8 +21,8 @@
 # Keep MainActivity (it's referenced in Manifest)
 -keep class com.wewebviewwrapper.MainActivity { *; }
 
-# Keep AssetResourceLoader and its inner classes
--keep class com.wewebviewwrapper.MainActivity$AssetResourceLoader { *; }
+# Keep AssetResourceLoader
+-keep class com.wewebviewwrapper.AssetResourceLoader { *; }
 
 # General WebView rules
 -keepattributes JavascriptInterface
@@ -0,0 +1,562 @@
+package com.wewebviewwrapper;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import com.wewebviewwrapper.core.AppLog;
+import com.wewebviewwrapper.core.AssetCache;
+import com.wewebviewwrapper.core.AssetIndex;
+import com.wewebviewwrapper.core.AssetPack;
+import com.wewebviewwrapper.core.AssetPreloader;
+import com.wewebviewwrapper.core.AssetResolver;
+import com.wewebviewwrapper.core.AssetResponse;
+import com.wewebviewwrapper.core.BundleStore;
+import com.wewebviewwrapper.core.BundleUpdater;
+import com.wewebviewwrapper.core.CachePolicy;
+import com.wewebviewwrapper.core.MimeTypes;
+import com.wewebviewwrapper.core.PreloadGraph;
+import com.wewebviewwrapper.core.RequestMetrics;
+import com.wewebviewwrapper.core.WebBundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 负责拦截 WebView 的网络请求，并将其重定向到应用的 assets 目录。
+ * 若构建期生成了资源索引（&lt;assetBase&gt;.index），命中与 404 均在内存中判定，
+ * 未知路径不再访问 AssetManager；索引缺失时退回逐个探测 assets 的方式。
+ * 若还打包了资源包（&lt;assetBase&gt;.pack，需构建时启用 webAssets.pack），加载索引时将其整体内存映射，
+ * 之后资源直接以映射区切片返回，不再经过 AssetManager 与内存缓存。
+ * 若 filesDir 中安装了与当前 APK 匹配的网页包（见 core 模块的 BundleStore），则优先从网页包提供资源，assets 作为回退；
+ * 新下载的网页包先暂存，在下一次主框架导航时才切换，当前页面的子资源始终来自同一版本。
+ * 主框架请求入口 HTML 时，按构建期生成的关键子资源图（&lt;assetBase&gt;.preload）在后台预读页面的 JS / CSS，
+ * 使其与 HTML 的读取、解析并行，WebView 随后的子资源请求命中内存缓存。
+ * 实例在进程内共享（见 WeWebViewApplication），应用启动时即在后台加载索引并预读入口页面（{@link #warmUp}）。
+ * 路径解析、MIME 推断与响应构建位于 core 模块，这里只负责 AssetManager 访问与平台类型转换。
+ */
+class AssetResourceLoader {
+    private final Context appContext;
+    private final AppLog log;
+    private final String localAssetBase;
+    private final AssetResolver resolver;
+
+    // 小资源内存缓存：总预算为堆上限的 1/16（最多 8 MB），单项不超过 256 KB
+    private final AssetCache assetCache = new AssetCache(
+            Math.min(Runtime.getRuntime().maxMemory() / 16, 8L * 1024 * 1024), 256 * 1024);
+
+    private final RequestMetrics metrics = new RequestMetrics();
+
+    // 预读线程池：2 个守护线程足以让存储读取与 HTML 解析重叠，又不与 WebView 的 IO 线程争抢；也用于清理旧网页包
+    private final ExecutorService preloadExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "AssetPreload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AssetPreloader preloader;
+
+    private volatile String lastModified;
+
+    private final Object indexLock = new Object();
+    private volatile boolean indexLoaded;
+    private AssetIndex assetIndex;
+    private volatile AssetPack assetPack;
+    private volatile PreloadGraph preloadGraph = PreloadGraph.EMPTY;
+
+    private final BundleStore bundleStore;
+    private volatile WebBundle activeBundle;
+    private volatile WebBundle pendingBundle;
+
+    /**
+     * @param bundleStore 网页包存储，为 null 时只从 assets 提供资源
+     */
+    public AssetResourceLoader(Context context, AppLog log, String domain, String assetBase, BundleStore bundleStore) {
+        this.appContext = context.getApplicationContext();
+        this.log = log;
+        this.bundleStore = bundleStore;
+        this.localAssetBase = assetBase;
+        this.resolver = new AssetResolver(domain, assetBase);
+        this.preloader = new AssetPreloader(assetCache, preloadExecutor, log);
+    }
+
+    /**
+     * @param source 请求来自页面（WebViewClient）还是 Service Worker（ServiceWorkerClient），仅用于指标统计
+     */
+    public WebResourceResponse shouldIntercept(WebResourceRequest request, RequestMetrics.Source source) {
+        long startNanos = System.nanoTime();
+        Uri uri = request.getUrl();
+        if (uri == null) return null;
+        // Uri.toString() 直接返回 WebView 传入的 URL 字符串，主机与路径都在其上按区间解析
+        String url = uri.toString();
+        log.core("Intercepting URL: {}", url);
+        if (!resolver.handles(url)) {
+            return null;
+        }
+        metrics.recordSource(source);
+        if (request.isForMainFrame()) {
+            metrics.recordNavigation(startNanos);
+        }
+
+        AssetIndex index = getIndex();
+        WebBundle bundle = currentBundle(request.isForMainFrame());
+        if (bundle != null) {
+            return interceptBundle(bundle, request, url, startNanos);
+        }
+        if (index == null) {
+            return interceptUnindexed(request, url, startNanos);
+        }
+        AssetIndex.Entry entry = resolver.lookup(index, url);
+        if (entry == null) {
+            String path = resolver.path(url);
+            return notFound(path != null ? resolver.assetPath(path) : url, startNanos);
+        }
+        RequestMetrics.ClassStats stats = metrics.stats(entry.mimeType);
+        String rangeHeader = AssetResolver.header(request.getRequestHeaders(), "Range");
+        // 资源包已整体映射时子资源直接取切片，无需预读
+        if (request.isForMainFrame() && assetPack == null) {
+            preload(index, preloadGraph, entry.path, null);
+        }
+
+        AssetResponse response;
+        try {
+            if (entry.size <= assetCache.maxEntryBytes()) {
+                // 小文件（index.html、入口 JS/CSS 等）经内存缓存返回，重复请求不再访问 AssetManager
+                InputStream stream = openPackedOrCached(entry.assetPath, entry.size, stats);
+                response = rangeHeader == null
+                        ? AssetResponse.full(stream, entry, getLastModified())
+                        : AssetResponse.of(stream, entry.mimeType, entry.size, rangeHeader, cacheHeaders(entry.path, entry));
+            } else {
+                response = openUncached(entry.assetPath, entry.path, entry, entry.mimeType, rangeHeader);
+            }
+        } catch (IOException e) {
+            return notFound(entry.assetPath, startNanos);
+        }
+        return toWebResponse(response, metrics.recordServed(stats, startNanos, response.data));
+    }
+
+    /**
+     * 从网页包提供资源：与 assets 路径相同的缓存与 Range 处理，只是内容来自 filesDir 中的文件。
+     */
+    private WebResourceResponse interceptBundle(WebBundle bundle, WebResourceRequest request, String url, long startNanos) {
+        AssetIndex.Entry entry = resolver.lookup(bundle.index, url);
+        if (entry == null) {
+            String path = resolver.path(url);
+            return notFound(path != null ? "bundle/" + bundle.version + "/" + path : url, startNanos);
+        }
+        RequestMetrics.ClassStats stats = metrics.stats(entry.mimeType);
+        String rangeHeader = AssetResolver.header(request.getRequestHeaders(), "Range");
+        if (request.isForMainFrame()) {
+            preload(bundle.index, bundle.preload, entry.path, bundle);
+        }
+        File file = bundle.file(entry);
+        AssetResponse response;
+        try {
+            InputStream stream = openCached(entry.assetPath, file, entry.size, stats);
+            response = rangeHeader == null
+                    ? AssetResponse.full(stream, entry, bundle.lastModified)
+                    : AssetResponse.of(stream, entry.mimeType, entry.size, rangeHeader,
+                    CachePolicy.headers(entry.path, entry, bundle.lastModified));
+        } catch (IOException e) {
+            return notFound(entry.assetPath, startNanos);
+        }
+        return toWebResponse(response, metrics.recordServed(stats, startNanos, response.data));
+    }
+
+    /**
+     * 未打包资源索引时的回退：按扩展名推断 MIME 类型并直接访问 AssetManager。
+     */
+    private WebResourceResponse interceptUnindexed(WebResourceRequest request, String url, long startNanos) {
+        String path = resolver.path(url);
+        if (path == null) {
+            return notFound(url, startNanos);
+        }
+        String assetPath = resolver.assetPath(path);
+        String mimeType = MimeTypes.forPath(path);
+        RequestMetrics.ClassStats stats = metrics.stats(mimeType);
+        AssetResponse response;
+        try {
+            response = openUncached(assetPath, path, null, mimeType,
+                    AssetResolver.header(request.getRequestHeaders(), "Range"));
+        } catch (IOException e) {
+            return notFound(assetPath, startNanos);
+        }
+        return toWebResponse(response, metrics.recordServed(stats, startNanos, response.data));
+    }
+
+    private AssetResponse openUncached(String assetPath, String path, AssetIndex.Entry entry, String mimeType,
+                                       String rangeHeader) throws IOException {
+        AssetPack pack = assetPack;
+        InputStream packed = entry != null && pack != null ? pack.open(assetPath) : null;
+        if (packed != null) {
+            return AssetResponse.of(packed, mimeType, entry.size, rangeHeader, cacheHeaders(path, entry));
+        }
+        // 未压缩存储的资源（媒体文件等）通过文件描述符直接定位到请求区间，无需从头读取
+        if (entry != null ? !entry.compressed : rangeHeader != null) {
+            AssetFileDescriptor afd = openFdOrNull(assetPath);
+            if (afd != null) {
+                return AssetResponse.of(afd.createInputStream(), mimeType, afd.getLength(), rangeHeader,
+                        cacheHeaders(path, entry));
+            }
+        }
+        InputStream stream = appContext.getAssets().open(assetPath);
+        return AssetResponse.of(stream, mimeType, entry != null ? entry.size : -1, rangeHeader,
+                cacheHeaders(path, entry));
+    }
+
+    /**
+     * 提交入口页面的关键子资源预读，预读结果与实际请求共用同一缓存键。
+     * @param bundle 页面所在的网页包，从 assets 提供时为 null
+     */
+    private void preload(AssetIndex index, PreloadGraph graph, String page, WebBundle bundle) {
+        int count = preloader.preload(index, graph, page,
+                (entry, key, size) -> readFully(open(key, bundle != null ? bundle.file(entry) : null), size));
+        if (count > 0) {
+            log.core("Preloading {} critical resources of {}", count, page);
+        }
+    }
+
+    /**
+     * 应用启动时在后台线程调用：提前加载资源索引、资源包与网页包，并将入口页面及其关键子资源读入内存缓存，
+     * 首次导航不再承担这些读取。
+     * @param page 入口 HTML 的路径
+     */
+    void warmUp(String page) {
+        AssetIndex index = getIndex();
+        WebBundle bundle = currentBundle(false);
+        if (bundle != null) {
+            index = bundle.index;
+        } else if (index == null || assetPack != null) {
+            // 没有索引时无法确定资源；资源包已整体映射时无需预读
+            return;
+        }
+        AssetIndex.Entry entry = index.get(page);
+        if (entry == null) return;
+        File file = bundle != null ? bundle.file(entry) : null;
+        if (entry.size <= assetCache.maxEntryBytes()) {
+            try {
+                assetCache.load(entry.assetPath, () -> readFully(open(entry.assetPath, file), (int) entry.size));
+            } catch (IOException e) {
+                log.error("Warm-up of {} failed: {}", entry.assetPath, e.getMessage());
+            }
+        }
+        preload(index, bundle != null ? bundle.preload : preloadGraph, page, bundle);
+    }
+
+    private static WebResourceResponse toWebResponse(AssetResponse response, InputStream data) {
+        return new WebResourceResponse(response.mimeType, "UTF-8", response.statusCode, response.reasonPhrase,
+                response.headers, data);
+    }
+
+    /**
+     * Last-Modified 取 APK 的安装/更新时间。
+     * WebResourceResponse 不允许 3xx 状态码，因此无法对 If-None-Match 返回 304。
+     */
+    private Map<String, String> cacheHeaders(String path, AssetIndex.Entry entry) {
+        return CachePolicy.headers(path, entry, getLastModified());
+    }
+
+    private String getLastModified() {
+        String value = lastModified;
+        if (value == null) {
+            long time = getApkUpdateTime();
+            value = CachePolicy.httpDate(time > 0 ? time : System.currentTimeMillis());
+            lastModified = value;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("deprecation")
+    private long getApkUpdateTime() {
+        try {
+            return appContext.getPackageManager().getPackageInfo(appContext.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return 当前 APK 的标识（安装/更新时间），记录在网页包指针中，APK 更新后旧网页包随之失效
+     */
+    String apkStamp() {
+        return String.valueOf(getApkUpdateTime());
+    }
+
+    /**
+     * 资源包中有该资源时直接返回映射区切片（零拷贝，不占用 Java 堆），否则经内存缓存读取。
+     */
+    private InputStream openPackedOrCached(String assetPath, long size, RequestMetrics.ClassStats stats)
+            throws IOException {
+        AssetPack pack = assetPack;
+        InputStream stream = pack != null ? pack.open(assetPath) : null;
+        return stream != null ? stream : openCached(assetPath, null, size, stats);
+    }
+
+    /**
+     * 从内存缓存返回资源内容，未命中时完整读取后放入缓存；超出单项上限的资源直接以流方式打开。
+     * 页面与 Service Worker 拦截线程同时未命中同一资源时只读取一次，共享同一缓冲区。
+     * @param key 缓存键：assets 中的路径，或网页包条目的 assetPath
+     * @param file 网页包中的文件，从 assets 读取时为 null
+     * @param size 资源长度（来自资源索引）
+     * @param stats 记录缓存命中情况的指标类别
+     */
+    private InputStream openCached(String key, File file, long size, RequestMetrics.ClassStats stats) throws IOException {
+        if (size > assetCache.maxEntryBytes()) {
+            return open(key, file);
+        }
+        byte[] data = assetCache.get(key);
+        (data != null ? stats.cacheHits : stats.cacheMisses).incrementAndGet();
+        if (data == null) {
+            data = assetCache.load(key, () -> readFully(open(key, file), (int) size));
+        }
+        return new ByteArrayInputStream(data);
+    }
+
+    private InputStream open(String assetPath, File file) throws IOException {
+        return file != null ? new FileInputStream(file) : appContext.getAssets().open(assetPath);
+    }
+
+    private static byte[] readFully(InputStream in, int size) throws IOException {
+        try (InputStream input = in) {
+            byte[] data = new byte[size];
+            int offset = 0;
+            while (offset < size) {
+                int n = input.read(data, offset, size - offset);
+                if (n < 0) throw new EOFException("Asset shorter than indexed size");
+                offset += n;
+            }
+            return data;
+        }
+    }
+
+    /**
+     * 根据系统内存压力等级收缩资源缓存。
+     */
+    void onTrimMemory(int level) {
+        float fraction;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            fraction = 0f;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            fraction = 0.25f;
+        } else {
+            fraction = 0.5f;
+        }
+        assetCache.shrink(fraction);
+    }
+
+    /**
+     * 回到前台后恢复缓存的初始预算。
+     */
+    void restoreCache() {
+        assetCache.restore();
+    }
+
+    String getCacheStats() {
+        return assetCache.stats() + "; " + preloader.stats();
+    }
+
+    RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 以文件描述符方式打开资源，仅对未压缩存储的资源有效。
+     * @return 资源被压缩存储或不存在时返回 null
+     */
+    private AssetFileDescriptor openFdOrNull(String assetPath) {
+        try {
+            return appContext.getAssets().openFd(assetPath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 暂存新安装的网页包，在下一次主框架导航时切换，避免同一页面混用两个版本的资源。
+     */
+    void stageBundle(WebBundle bundle) {
+        Set<String> keep;
+        synchronized (indexLock) {
+            pendingBundle = bundle;
+            keep = bundlesInUse();
+        }
+        log.info("Web bundle {} staged, switching on next navigation", bundle.version);
+        // 被替换的暂存版本从未提供过资源，可以删除；正在使用的版本保留到切换之后
+        retainBundles(keep);
+    }
+
+    /**
+     * @param mainFrame 当前请求是否为主框架导航；是则切换到已暂存的网页包
+     * @return 提供资源的网页包，没有时返回 null（使用 assets）
+     */
+    private WebBundle currentBundle(boolean mainFrame) {
+        if (mainFrame && pendingBundle != null) {
+            synchronized (indexLock) {
+                WebBundle pending = pendingBundle;
+                if (pending != null) {
+                    activeBundle = pending;
+                    pendingBundle = null;
+                    log.core("Switched to web bundle {}", pending.version);
+                    retainBundles(Collections.singleton(pending.version));
+                }
+            }
+        }
+        return activeBundle;
+    }
+
+    /**
+     * @return 正在提供资源与已暂存待切换的网页包版本
+     */
+    Set<String> bundlesInUse() {
+        Set<String> versions = new HashSet<>();
+        synchronized (indexLock) {
+            if (activeBundle != null) versions.add(activeBundle.version);
+            if (pendingBundle != null) versions.add(pendingBundle.version);
+        }
+        return versions;
+    }
+
+    /**
+     * 在后台删除 keep 之外的网页包版本目录（指针记录的版本与进行中的暂存目录由 BundleStore 保留）。
+     */
+    private void retainBundles(Set<String> keep) {
+        if (bundleStore == null) return;
+        preloadExecutor.execute(() -> {
+            try {
+                int deleted = bundleStore.retainOnly(keep, apkStamp());
+                if (deleted > 0) {
+                    log.core("Removed {} unused web bundle versions", deleted);
+                }
+            } catch (IOException e) {
+                log.error("Web bundle cleanup failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @return 下一次更新的差分与复用基准：已暂存或正在使用的网页包，否则为 APK 内置的 assets
+     */
+    BundleUpdater.Base updateBase() {
+        WebBundle bundle = pendingBundle != null ? pendingBundle : activeBundle;
+        if (bundle != null) return bundle;
+        AssetIndex index = getIndex();
+        return new BundleUpdater.Base() {
+            @Override
+            public String version() {
+                return "apk";
+            }
+
+            @Override
+            public AssetIndex index() {
+                return index;
+            }
+
+            @Override
+            public byte[] read(AssetIndex.Entry entry) throws IOException {
+                return readFully(appContext.getAssets().open(entry.assetPath), (int) entry.size);
+            }
+        };
+    }
+
+    /**
+     * 首次调用时加载资源索引与资源包（通常位于 WebView IO 线程），此后直接返回缓存结果。
+     * @return 资源索引，未打包索引或解析失败时返回 null
+     */
+    private AssetIndex getIndex() {
+        if (!indexLoaded) {
+            synchronized (indexLock) {
+                if (!indexLoaded) {
+                    assetIndex = loadIndex();
+                    if (assetIndex != null) {
+                        assetPack = loadPack();
+                        preloadGraph = loadPreloadGraph();
+                    }
+                    activeBundle = loadBundle();
+                    indexLoaded = true;
+                    // 清理上次运行切换后遗留的旧版本
+                    retainBundles(activeBundle != null
+                            ? Collections.singleton(activeBundle.version) : Collections.emptySet());
+                }
+            }
+        }
+        return assetIndex;
+    }
+
+    private AssetIndex loadIndex() {
+        try (InputStream in = appContext.getAssets().open(localAssetBase + ".index")) {
+            AssetIndex index = AssetIndex.load(in, localAssetBase);
+            log.core("Asset index loaded: {} entries", index.size());
+            return index;
+        } catch (IOException e) {
+            log.error("Asset index unavailable, probing AssetManager instead: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 以 openFd 定位 APK 中 stored 存储的资源包并整体只读映射；映射建立后文件描述符即可关闭。
+     * @return 资源包，未打包或映射失败时返回 null
+     */
+    private AssetPack loadPack() {
+        try (AssetFileDescriptor afd = appContext.getAssets().openFd(localAssetBase + ".pack");
+             FileInputStream in = afd.createInputStream()) {
+            AssetPack pack = AssetPack.map(in.getChannel(), afd.getStartOffset(), afd.getLength());
+            log.core("Asset pack mapped: {} entries, {} KB", pack.size(), pack.byteSize() / 1024);
+            return pack;
+        } catch (FileNotFoundException e) {
+            log.core("Asset pack not packaged, serving assets through AssetManager");
+            return null;
+        } catch (IOException e) {
+            log.error("Asset pack unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private PreloadGraph loadPreloadGraph() {
+        try (InputStream in = appContext.getAssets().open(localAssetBase + ".preload")) {
+            PreloadGraph graph = PreloadGraph.load(in);
+            log.core("Preload graph loaded: {} pages", graph.size());
+            return graph;
+        } catch (FileNotFoundException e) {
+            return PreloadGraph.EMPTY;
+        } catch (IOException e) {
+            log.error("Preload graph unavailable: {}", e.getMessage());
+            return PreloadGraph.EMPTY;
+        }
+    }
+
+    private WebBundle loadBundle() {
+        if (bundleStore == null) return null;
+        try {
+            WebBundle bundle = bundleStore.current(apkStamp());
+            if (bundle != null) {
+                log.core("Web bundle {} loaded: {} entries", bundle.version, bundle.index.size());
+            }
+            return bundle;
+        } catch (IOException e) {
+            log.error("Web bundle unavailable, serving assets: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private WebResourceResponse notFound(String assetPath, long startNanos) {
+        metrics.recordNotFound(metrics.stats(MimeTypes.forPath(assetPath)), startNanos);
+        log.error("Asset File not found: {}", assetPath);
+        AssetResponse response = AssetResponse.notFound(assetPath);
+        return toWebResponse(response, response.data);
+    }
+}
@@ -0,0 +1,43 @@
+package com.wewebviewwrapper;
+
+import com.wewebviewwrapper.core.BundleUpdater;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * 通过 HttpURLConnection 从更新服务器获取网页包文件，404 视为文件不存在（如未提供差分）。
+ */
+class HttpBundleTransport implements BundleUpdater.Transport {
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 30_000;
+
+    private final String baseUrl;
+
+    /**
+     * @param baseUrl 更新服务器根地址，即 latest 文件所在的目录
+     */
+    HttpBundleTransport(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+    }
+
+    @Override
+    public InputStream get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        connection.setUseCaches(false);
+        int code = connection.getResponseCode();
+        if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+            connection.disconnect();
+            return null;
+        }
+        if (code != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("HTTP " + code + " for " + path);
+        }
+        return connection.getInputStream();
+    }
+}
@@ -0,0 +1,260 @@
+package com.wewebviewwrapper;
+
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.util.TypedValue;
+import android.view.Choreographer;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.wewebviewwrapper.core.LogFormat;
+import com.wewebviewwrapper.core.LogStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 调试面板中的日志查看器：基于 RecyclerView 虚拟化显示 LogStore 中的条目。
+ * 新日志只标记待刷新，每个 Choreographer 帧最多合并刷新一次并只拉取增量条目；
+ * 级别与关键字过滤在输入变化时增量执行，列表长度不超过 LogStore 容量，内存占用恒定。
+ */
+final class LogViewer {
+
+    private static final int COLOR_CORE = Color.parseColor("#FFCC00");
+    private static final int COLOR_INFO = Color.parseColor("#CCCCCC");
+    private static final int COLOR_ERROR = Color.parseColor("#FF6666");
+
+    private final LogStore store;
+    private final RecyclerView list;
+    private final LinearLayoutManager layoutManager;
+    private final Button levelButton;
+    private final Adapter adapter = new Adapter();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean framePending = new AtomicBoolean();
+    private final Choreographer.FrameCallback frameCallback = frameTimeNanos -> onFrame();
+
+    private volatile boolean active;
+    private boolean filterDirty;
+    // 已拉取到的下一个序号
+    private long nextSequence;
+    // 过滤条件：level 为 null 表示全部级别
+    private LogStore.Level levelFilter;
+    private String query = "";
+    private String pendingQuery = "";
+
+    LogViewer(LogStore store, RecyclerView list, EditText search, Button levelButton) {
+        this.store = store;
+        this.list = list;
+        this.levelButton = levelButton;
+        this.layoutManager = new LinearLayoutManager(list.getContext());
+        layoutManager.setStackFromEnd(true);
+        list.setLayoutManager(layoutManager);
+        list.setItemAnimator(null);
+        list.setAdapter(adapter);
+
+        levelButton.setOnClickListener(v -> {
+            LogStore.Level[] levels = LogStore.Level.values();
+            levelFilter = levelFilter == null ? levels[0]
+                    : levelFilter.ordinal() + 1 < levels.length ? levels[levelFilter.ordinal() + 1] : null;
+            updateLevelLabel();
+            filterDirty = true;
+            scheduleFrame();
+        });
+        updateLevelLabel();
+
+        search.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                pendingQuery = s.toString().trim().toLowerCase(Locale.ROOT);
+                scheduleFrame();
+            }
+        });
+    }
+
+    /**
+     * 面板显示时调用：全量加载一次当前日志并开始接收增量刷新。
+     */
+    void show() {
+        active = true;
+        filterDirty = true;
+        scheduleFrame();
+    }
+
+    /**
+     * 面板隐藏时调用：停止刷新并释放已显示的条目引用。
+     */
+    void hide() {
+        active = false;
+        adapter.clear();
+    }
+
+    /**
+     * 有新日志写入时调用，可在任意线程调用；同一帧内的多次调用只触发一次刷新。
+     */
+    void onLogAppended() {
+        if (active) scheduleFrame();
+    }
+
+    private void scheduleFrame() {
+        if (framePending.compareAndSet(false, true)) {
+            mainHandler.post(() -> Choreographer.getInstance().postFrameCallback(frameCallback));
+        }
+    }
+
+    private void onFrame() {
+        framePending.set(false);
+        if (!active) return;
+        boolean atBottom = !list.canScrollVertically(1);
+
+        if (!pendingQuery.equals(query)) {
+            // 关键字只是在原有基础上追加字符时，直接在当前结果中继续过滤
+            boolean narrowing = !filterDirty && pendingQuery.contains(query);
+            query = pendingQuery;
+            if (narrowing) {
+                adapter.retainMatching();
+            } else {
+                filterDirty = true;
+            }
+        }
+        if (filterDirty) {
+            filterDirty = false;
+            List<LogStore.Entry> snapshot = store.snapshot();
+            advance(snapshot);
+            adapter.replace(filter(snapshot));
+        } else {
+            List<LogStore.Entry> added = store.snapshotSince(nextSequence);
+            advance(added);
+            adapter.dropEvicted(store.totalCount() - store.capacity());
+            adapter.append(filter(added));
+        }
+        if (atBottom && adapter.getItemCount() > 0) {
+            list.scrollToPosition(adapter.getItemCount() - 1);
+        }
+    }
+
+    /**
+     * snapshotSince 只返回连续的前缀：并发写入尚未落槽的条目不越过，写入方追加完成后通知的下一帧再取到。
+     */
+    private void advance(List<LogStore.Entry> fetched) {
+        if (!fetched.isEmpty()) {
+            nextSequence = fetched.get(fetched.size() - 1).sequence + 1;
+        }
+    }
+
+    private List<LogStore.Entry> filter(List<LogStore.Entry> entries) {
+        if (levelFilter == null && query.isEmpty()) return entries;
+        List<LogStore.Entry> result = new ArrayList<>(entries.size());
+        for (LogStore.Entry entry : entries) {
+            if (matches(entry)) result.add(entry);
+        }
+        return result;
+    }
+
+    private boolean matches(LogStore.Entry entry) {
+        if (levelFilter != null && entry.level != levelFilter) return false;
+        return query.isEmpty() || entry.message.toLowerCase(Locale.ROOT).contains(query);
+    }
+
+    private void updateLevelLabel() {
+        levelButton.setText(levelFilter == null ? "ALL" : levelFilter.name());
+    }
+
+    private final class Adapter extends RecyclerView.Adapter<Holder> {
+        private final List<LogStore.Entry> items = new ArrayList<>();
+        private final StringBuilder lineBuilder = new StringBuilder(256);
+
+        void replace(List<LogStore.Entry> entries) {
+            items.clear();
+            items.addAll(entries);
+            notifyDataSetChanged();
+        }
+
+        void append(List<LogStore.Entry> entries) {
+            if (entries.isEmpty()) return;
+            int start = items.size();
+            items.addAll(entries);
+            notifyItemRangeInserted(start, entries.size());
+        }
+
+        /**
+         * 移除已被环形存储覆盖的条目，使列表长度不超过存储容量。
+         */
+        void dropEvicted(long oldestRetained) {
+            int count = 0;
+            while (count < items.size() && items.get(count).sequence < oldestRetained) count++;
+            if (count > 0) {
+                items.subList(0, count).clear();
+                notifyItemRangeRemoved(0, count);
+            }
+        }
+
+        void retainMatching() {
+            List<LogStore.Entry> kept = filter(new ArrayList<>(items));
+            if (kept.size() != items.size()) replace(kept);
+        }
+
+        void clear() {
+            if (items.isEmpty()) return;
+            items.clear();
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
+            TextView view = new TextView(parent.getContext());
+            view.setLayoutParams(new RecyclerView.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+            view.setTypeface(Typeface.MONOSPACE);
+            view.setTextSize(TypedValue.COMPLEX_UNIT_SP, 12);
+            int padding = (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 4,
+                    parent.getResources().getDisplayMetrics());
+            view.setPadding(padding * 2, padding, padding * 2, padding);
+            return new Holder(view);
+        }
+
+        @Override
+        public void onBindViewHolder(Holder holder, int position) {
+            LogStore.Entry entry = items.get(position);
+            lineBuilder.setLength(0);
+            lineBuilder.append('[');
+            LogFormat.appendTime(lineBuilder, entry.timeMillis);
+            lineBuilder.append("] [").append(entry.level.name()).append("] ").append(entry.message);
+            holder.text.setText(lineBuilder.toString());
+            holder.text.setTextColor(entry.level == LogStore.Level.ERROR ? COLOR_ERROR
+                    : entry.level == LogStore.Level.CORE ? COLOR_CORE : COLOR_INFO);
+        }
+
+        @Override
+        public int getItemCount() {
+            return items.size();
+        }
+    }
+
+    private static final class Holder extends RecyclerView.ViewHolder {
+        final TextView text;
+
+        Holder(TextView view) {
+            super(view);
+            this.text = view;
+        }
+    }
+}
@@ -14,6 +14,8 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
 import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
@@ -29,7 +31,6 @@ import android.webkit.WebChromeClient;
 import android.webkit.WebResourceError;
 import android.webkit.WebResourceRequest;
 import android.webkit.WebResourceResponse;
-import android.webkit.WebSettings;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import android.widget.FrameLayout;
@@ -45,15 +46,18 @@ import androidx.appcompat.widget.SwitchCompat;
 import androidx.core.content.ContextCompat;
 import androidx.documentfile.provider.DocumentFile;
 
-import java.io.ByteArrayInputStream;
+import com.wewebviewwrapper.core.AppLog;
+import com.wewebviewwrapper.core.LogStore;
+import com.wewebviewwrapper.core.RequestMetrics;
+import com.wewebviewwrapper.core.StartupTrace;
+
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * 应用主界面，包含 WebView 核心逻辑、全屏切换处理以及存储授权管理。
@@ -62,15 +66,23 @@ public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "WeWebViewWrapper";
     private WebView webView;
+    // window.open 打开的子窗口，叠放在主窗口之上，最后打开的在栈顶
+    private final ArrayDeque<WebView> childWindows = new ArrayDeque<>();
+    private ViewGroup webViewContainer;
     private ValueCallback<Uri[]> mUploadCallback;
-    private StringBuffer errorLogs = new StringBuffer();
-    private TextView logTextView;
+    // 日志、资源加载器与 WebView 磁盘缓存状态在进程内共享（见 WeWebViewApplication）
+    private WeWebViewApplication app;
+    private AppLog log;
+    private LogViewer logViewer;
     private View logContainer;
     private View settingsContainer;
     private SwitchCompat switchDetailedLog;
-    private boolean isDetailedLogEnabled = false;
+    private TextView metricsSummary;
+    private TextView startupTimeline;
     private LinearLayout bottomToolbar;
     private AssetResourceLoader assetLoader;
+    private StartupTracer startupTracer;
+    private boolean startupRecorded;
 
     // Fullscreen related
     private View customView;
@@ -84,7 +96,7 @@ public class MainActivity extends AppCompatActivity {
     private final ActivityResultLauncher<Intent> fileChooserLauncher = registerForActivityResult(
             new ActivityResultContracts.StartActivityForResult(),
             result -> {
-                logInfo("fileChooserLauncher Callback: ResultCode=" + result.getResultCode() + ", HasData=" + (result.getData() != null));
+                log.core("fileChooserLauncher Callback: ResultCode={}, HasData={}", result.getResultCode(), result.getData() != null);
                 if (mUploadCallback != null) {
                     Uri[] results = null;
                     if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
@@ -100,15 +112,15 @@ public class MainActivity extends AppCompatActivity {
                     }
                     
                     if (results != null) {
-                        logInfo("File chooser result: SUCCESS, count=" + results.length);
+                        log.core("File chooser result: SUCCESS, count={}", results.length);
                     } else {
-                        logInfo("File chooser result: CANCELLED (or result code not OK)");
+                        log.core("File chooser result: CANCELLED (or result code not OK)");
                     }
                     
                     mUploadCallback.onReceiveValue(results);
                     mUploadCallback = null;
                 } else {
-                    logError("fileChooserLauncher Callback: mUploadCallback is NULL, cannot return result");
+                    log.error("fileChooserLauncher Callback: mUploadCallback is NULL, cannot return result");
                 }
             }
     );
@@ -119,11 +131,11 @@ public class MainActivity extends AppCompatActivity {
     private final ActivityResultLauncher<Uri> directoryChooserLauncher = registerForActivityResult(
             new ActivityActivityResultContractsOpenDocumentTree(),
             uri -> {
-                logInfo("directoryChooserLauncher Callback: URI=" + (uri != null ? uri.toString() : "NULL"));
+                log.core("directoryChooserLauncher Callback: URI={}", uri != null ? uri : "NULL");
                 if (mUploadCallback != null) {
                     Uri[] results = null;
                     if (uri != null) {
-                        logInfo("Directory chooser result: SUCCESS, uri=" + uri.toString());
+                        log.core("Directory chooser result: SUCCESS, uri={}", uri);
                         try {
                             // 1. 获取持久化访问权限
                             final int takeFlags = Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_WRITE_URI_PERMISSION;
@@ -137,17 +149,17 @@ public class MainActivity extends AppCompatActivity {
 
                             // 3. 直接返回目录 URI (适配 Web File System Access API)
                             results = new Uri[]{uri};
-                            logInfo("Directory result sent to WebView: " + uri.toString());
+                            log.core("Directory result sent to WebView: {}", uri);
                         } catch (Exception e) {
-                            logError("Directory Chooser Post-Processing Error: " + Log.getStackTraceString(e));
+                            log.error("Directory Chooser Post-Processing Error: {}", Log.getStackTraceString(e));
                         }
                     } else {
-                        logInfo("Directory chooser result: CANCELLED (URI is NULL)");
+                        log.core("Directory chooser result: CANCELLED (URI is NULL)");
                     }
                     mUploadCallback.onReceiveValue(results);
                     mUploadCallback = null;
                 } else {
-                    logError("directoryChooserLauncher Callback: mUploadCallback is NULL, cannot return result");
+                    log.error("directoryChooserLauncher Callback: mUploadCallback is NULL, cannot return result");
                 }
             }
     );
@@ -169,36 +181,32 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        long createNanos = SystemClock.elapsedRealtimeNanos();
         super.onCreate(savedInstanceState);
-        
-        // 设置全局异常捕获，使用弱引用防止 Activity 泄漏
-        final Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
-        final WeakReference<MainActivity> activityRef = new WeakReference<>(this);
-        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
-            String stackTrace = Log.getStackTraceString(throwable);
-            MainActivity activity = activityRef.get();
-            if (activity != null) {
-                activity.logError("Uncaught Exception: " + stackTrace);
-            } else {
-                Log.e(TAG, "Uncaught Exception (Activity dead): " + stackTrace);
-            }
-            if (defaultHandler != null) {
-                defaultHandler.uncaughtException(thread, throwable);
-            }
-        });
-
+        app = (WeWebViewApplication) getApplication();
+        log = app.log;
+        log.setSink(this::onLog);
+        assetLoader = app.assetLoader();
+        startupTracer = app.startupTracer();
+        startupTracer.mark(StartupTrace.Phase.ON_CREATE, createNanos);
+
+        Trace.beginSection("WW:setContentView");
         setContentView(R.layout.activity_main);
+        Trace.endSection();
+        startupTracer.mark(StartupTrace.Phase.CONTENT_VIEW_SET);
 
         originalOrientation = getRequestedOrientation();
-        assetLoader = new AssetResourceLoader(this, "localhost", "dist"); 
 
+        Trace.beginSection("WW:setupWebView");
         initViews();
         setupWebView();
         setupBackPressed();
+        Trace.endSection();
+        startupTracer.mark(StartupTrace.Phase.WEB_VIEW_READY);
         
         // 打印环境信息
-        logInfo("=== APP STARTING ===");
-        logInfo("WebView Version: " + webView.getSettings().getUserAgentString());
+        log.core("=== APP STARTING ===");
+        log.core("WebView Version: {}", webView.getSettings().getUserAgentString());
         logPermissionStatus();
 
         // 开启 WebView 的远程调试模式 (仅在调试版开启)
@@ -208,28 +216,62 @@ public class MainActivity extends AppCompatActivity {
             }
         }
         
+        startupTracer.mark(StartupTrace.Phase.LOAD_URL);
         webView.loadUrl("https://localhost/");
+        app.checkBundleUpdate();
+    }
+
+    /**
+     * 首个页面可见时记录启动时间（启动时间线起点到页面可见），按 WebView 磁盘缓存是否保留区分冷、热启动。
+     */
+    private void recordStartup() {
+        if (startupRecorded) return;
+        startupRecorded = true;
+        long millis = startupTracer.offsetMicros(StartupTrace.Phase.PAGE_VISIBLE) / 1000;
+        boolean warm = app.isWebCacheWarm();
+        assetLoader.getMetrics().recordStartup(warm, millis * 1000);
+        log.core("Startup to first render: {} ms ({} start)", millis, warm ? "warm" : "cold");
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // 页面没有产生内容绘制（如空白页）时，离开前台也结束本次启动记录
+        if (startupTracer != null) startupTracer.finish();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
         if (webView != null) webView.onPause();
+        for (WebView child : childWindows) {
+            child.onPause();
+        }
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         if (webView != null) webView.onResume();
+        for (WebView child : childWindows) {
+            child.onResume();
+        }
+        if (assetLoader != null) assetLoader.restoreCache();
     }
 
     @Override
     protected void onDestroy() {
+        while (!childWindows.isEmpty()) {
+            app.webViewPool().discard(childWindows.pop());
+        }
         if (webView != null) {
             // 停止加载并清除历史，防止内存泄漏
             webView.loadDataWithBaseURL(null, "", "text/html", "utf-8", null);
             webView.clearHistory();
-            webView.clearCache(true);
+            // 默认保留磁盘缓存供下次热启动（见 prepareWebCache）
+            if (!BuildConfig.WEB_CACHE_KEEP) {
+                webView.clearCache(true);
+            }
             
             // 安全移除 View 树中的引用
             if (webView.getParent() != null) {
@@ -239,7 +281,10 @@ public class MainActivity extends AppCompatActivity {
             webView.removeAllViews();
             webView.destroy();
             webView = null;
+            // 进程通常在 Activity 退出后仍存活一段时间，预先创建下一次启动使用的 WebView
+            if (BuildConfig.STARTUP_SPARE_WEB_VIEW) app.webViewPool().prefill(1);
         }
+        log.setSink(null);
         super.onDestroy();
     }
 
@@ -247,12 +292,19 @@ public class MainActivity extends AppCompatActivity {
      * 初始化布局视图和底部工具栏按钮事件。
      */
     private void initViews() {
-        webView = findViewById(R.id.webview);
+        // WebView 不在布局中声明：从 WebView 池取出预先创建的实例，池为空时在此时新建
+        webView = app.webViewPool().acquire(this);
+        webViewContainer = findViewById(R.id.webview_container);
+        webViewContainer.addView(webView,
+                new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
         bottomToolbar = findViewById(R.id.bottom_toolbar);
         logContainer = findViewById(R.id.log_container);
-        logTextView = findViewById(R.id.log_text);
+        logViewer = new LogViewer(log.store(), findViewById(R.id.log_list), findViewById(R.id.log_search),
+                findViewById(R.id.btn_log_level));
         settingsContainer = findViewById(R.id.settings_container);
         switchDetailedLog = findViewById(R.id.switch_detailed_log);
+        metricsSummary = findViewById(R.id.metrics_summary);
+        startupTimeline = findViewById(R.id.startup_timeline);
 
         findViewById(R.id.btn_back).setOnClickListener(v -> {
             if (webView.canGoBack()) webView.goBack();
@@ -267,30 +319,43 @@ public class MainActivity extends AppCompatActivity {
         });
 
         findViewById(R.id.btn_settings).setOnClickListener(v -> {
+            metricsSummary.setText(assetLoader.getMetrics().summary());
+            startupTimeline.setText(startupTracer.describe());
             settingsContainer.setVisibility(View.VISIBLE);
         });
 
+        findViewById(R.id.btn_export_metrics).setOnClickListener(v -> exportMetrics());
+
+        findViewById(R.id.btn_clear_web_cache).setOnClickListener(v -> {
+            webView.clearCache(true);
+            log.info("Web cache cleared by user, next launch will be a cold start");
+            Toast.makeText(this, "Web cache cleared", Toast.LENGTH_SHORT).show();
+        });
+
         findViewById(R.id.btn_close_settings).setOnClickListener(v -> {
             settingsContainer.setVisibility(View.GONE);
         });
 
         findViewById(R.id.btn_open_log_viewer).setOnClickListener(v -> {
+            log.info(assetLoader.getCacheStats());
+            log.info(app.webViewPool().stats());
             logContainer.setVisibility(View.VISIBLE);
-            logTextView.setText(errorLogs.toString());
+            logViewer.show();
         });
 
         switchDetailedLog.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            isDetailedLogEnabled = isChecked;
-            logInfo("Detailed Log Mode: " + (isChecked ? "ON" : "OFF"));
+            log.setDetailedEnabled(isChecked);
+            log.core("Detailed Log Mode: {}", isChecked ? "ON" : "OFF");
         });
 
         findViewById(R.id.btn_close_log).setOnClickListener(v -> {
             logContainer.setVisibility(View.GONE);
+            logViewer.hide();
         });
 
         findViewById(R.id.btn_copy_log).setOnClickListener(v -> {
             ClipboardManager clipboard = (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
-            ClipData clip = ClipData.newPlainText("Error Logs", errorLogs.toString());
+            ClipData clip = ClipData.newPlainText("Error Logs", log.store().toText());
             clipboard.setPrimaryClip(clip);
             // Android 13+ (API 33) 会自动显示复制成功的系统提示，避免重复弹出 Toast
             if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) {
@@ -300,44 +365,79 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * 配置 WebView 的核心属性，包括 JS 启用、DOM 存储以及资源请求拦截。
+     * 将资源拦截指标以 JSON 复制到剪贴板，同时写入 filesDir/request-metrics.json，可通过文档提供器导出。
      */
-    private void setupWebView() {
-        WebSettings settings = webView.getSettings();
-        settings.setJavaScriptEnabled(true);
-        settings.setDomStorageEnabled(true);
-        // setDatabaseEnabled 已在 API 19 废弃，在现代 WebView 中无实际作用
-        settings.setAllowFileAccess(false);
-        settings.setAllowContentAccess(false);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
-            settings.setAllowFileAccessFromFileURLs(false);
-            settings.setAllowUniversalAccessFromFileURLs(false);
+    private void exportMetrics() {
+        String json = assetLoader.getMetrics().toJson(getVersionName());
+        File file = new File(getFilesDir(), "request-metrics.json");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.error("Failed to write metrics: {}", e.getMessage());
         }
-        settings.setJavaScriptCanOpenWindowsAutomatically(true);
-        settings.setSupportMultipleWindows(true);
-        settings.setMediaPlaybackRequiresUserGesture(false);
-        
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            settings.setMixedContentMode(WebSettings.MIXED_CONTENT_NEVER_ALLOW);
+        ClipboardManager clipboard = (ClipboardManager) getSystemService(Context.CLIPBOARD_SERVICE);
+        clipboard.setPrimaryClip(ClipData.newPlainText("Request Metrics", json));
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) {
+            Toast.makeText(this, "Metrics copied to clipboard", Toast.LENGTH_SHORT).show();
         }
-        
-        // 设置缓存模式
-        settings.setCacheMode(WebSettings.LOAD_DEFAULT);
-        
+    }
+
+    @SuppressWarnings("deprecation")
+    private String getVersionName() {
+        try {
+            return getPackageManager().getPackageInfo(getPackageName(), 0).versionName;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * 配置 WebView 的核心属性，包括 JS 启用、DOM 存储以及资源请求拦截。
+     */
+    private void setupWebView() {
+        // 通用设置（JS、DOM 存储、文件访问限制、多窗口等）已由 WebViewPool 在创建时应用
+        // 页面 paint 时间的桥接（见 StartupTracer），只接收数值，不暴露其他能力
+        startupTracer.install(webView);
+
         // WebViewClient configuration
         webView.setWebViewClient(new WebViewClient() {
             @Override
             public void onPageStarted(WebView view, String url, Bitmap favicon) {
                 super.onPageStarted(view, url, favicon);
+                startupTracer.mark(StartupTrace.Phase.PAGE_STARTED);
                 showToolbar();
             }
 
+            @Override
+            public void onPageFinished(WebView view, String url) {
+                super.onPageFinished(view, url);
+                startupTracer.mark(StartupTrace.Phase.PAGE_FINISHED);
+                // 页面加载完成后在空闲时备好一个子窗口用的 WebView
+                app.webViewPool().prefill(1);
+            }
+
+            /**
+             * 新页面首次可见，记录自导航请求起的首次渲染时间（显示在设置面板的指标摘要中）。
+             */
+            @Override
+            public void onPageCommitVisible(WebView view, String url) {
+                super.onPageCommitVisible(view, url);
+                startupTracer.mark(StartupTrace.Phase.PAGE_VISIBLE);
+                startupTracer.observePaints(view);
+                long micros = assetLoader.getMetrics().recordFirstRender();
+                if (micros >= 0) {
+                    log.core("First render of {} in {} ms", url, micros / 1000);
+                }
+                recordStartup();
+            }
+
             /**
              * 拦截并处理 WebView 发起的资源请求，支持从 assets 中加载本地资源。
              */
             @Override
             public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
-                return assetLoader.shouldIntercept(request.getUrl());
+                startupTracer.mark(StartupTrace.Phase.FIRST_INTERCEPT);
+                return assetLoader.shouldIntercept(request, RequestMetrics.Source.PAGE);
             }
 
             /**
@@ -346,7 +446,7 @@ public class MainActivity extends AppCompatActivity {
             @Override
             public void onReceivedError(WebView view, WebResourceRequest request, WebResourceError error) {
                 if (request.isForMainFrame()) {
-                    logError("WebView Error [" + error.getErrorCode() + "]: " + error.getDescription() + " (at " + request.getUrl() + ")");
+                    log.error("WebView Error [{}]: {} (at {})", error.getErrorCode(), error.getDescription(), request.getUrl());
                 }
             }
         });
@@ -359,7 +459,7 @@ public class MainActivity extends AppCompatActivity {
                 @Override
                 public WebResourceResponse shouldInterceptRequest(WebResourceRequest request) {
                     AssetResourceLoader loader = loaderRef.get();
-                    return loader != null ? loader.shouldIntercept(request.getUrl()) : null;
+                    return loader != null ? loader.shouldIntercept(request, RequestMetrics.Source.SERVICE_WORKER) : null;
                 }
             });
         }
@@ -373,24 +473,24 @@ public class MainActivity extends AppCompatActivity {
              */
             @Override
             public boolean onShowFileChooser(WebView webView, ValueCallback<Uri[]> filePathCallback, FileChooserParams fileChooserParams) {
-                logInfo(">>>>>> ON_SHOW_FILE_CHOOSER TRIGGERED <<<<<<", false);
-                logInfo("onShowFileChooser ENTERED", false);
+                log.core(">>>>>> ON_SHOW_FILE_CHOOSER TRIGGERED <<<<<<");
+                log.core("onShowFileChooser ENTERED");
                 if (mUploadCallback != null) {
-                    logInfo("Cancelling previous pending upload callback", false);
+                    log.core("Cancelling previous pending upload callback");
                     try {
                         mUploadCallback.onReceiveValue(null);
                     } catch (Exception e) {
-                        logError("Error cancelling previous callback: " + e.getMessage());
+                        log.error("Error cancelling previous callback: {}", e.getMessage());
                     }
                 }
                 mUploadCallback = filePathCallback;
 
                 int mode = fileChooserParams.getMode();
                 String[] acceptTypes = fileChooserParams.getAcceptTypes();
-                String acceptStr = acceptTypes != null ? Arrays.toString(acceptTypes) : "none";
                 String hint = fileChooserParams.getFilenameHint();
                 
-                logInfo("FileChooser Params: Mode=" + mode + ", Accept=" + acceptStr + ", Hint=" + (hint != null ? hint : "NULL"), false);
+                log.core("FileChooser Params: Mode={}, Accept={}, Hint={}", mode,
+                        acceptTypes != null ? acceptTypes : "none", hint != null ? hint : "NULL");
                 logPermissionStatus();
 
                 // 1. 识别目录拾取 (MODE_OPEN_FOLDER = 2 或特定的 .directory 约定)
@@ -407,14 +507,14 @@ public class MainActivity extends AppCompatActivity {
                 // 2. 识别保存模式 (MODE_SAVE = 3)
                 boolean isSaveMode = (mode == 3);
 
-                logInfo("Determined Picker Type: " + (isDirectoryPick ? "DIRECTORY" : (isSaveMode ? "SAVE" : "OPEN")), false);
+                log.core("Determined Picker Type: {}", isDirectoryPick ? "DIRECTORY" : (isSaveMode ? "SAVE" : "OPEN"));
 
                 try {
                     if (isDirectoryPick) {
-                        logInfo("Launching directoryChooserLauncher...", false);
+                        log.core("Launching directoryChooserLauncher...");
                         directoryChooserLauncher.launch(null);
                     } else if (isSaveMode) {
-                        logInfo("Building Intent.ACTION_CREATE_DOCUMENT...", false);
+                        log.core("Building Intent.ACTION_CREATE_DOCUMENT...");
                         // 手动构建 ACTION_CREATE_DOCUMENT 以确保兼容性
                         Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
                         intent.addCategory(Intent.CATEGORY_OPENABLE);
@@ -427,61 +527,65 @@ public class MainActivity extends AppCompatActivity {
                                 mimeType = firstType;
                             } else if (firstType.startsWith(".")) {
                                 // 简单转换，虽然不完善但能减少崩溃
-                                logInfo("Found extension instead of MIME: " + firstType + ", using default */*", true);
+                                log.info("Found extension instead of MIME: {}, using default */*", firstType);
                             }
                         }
-                        logInfo("Setting Intent MIME Type: " + mimeType, false);
+                        log.core("Setting Intent MIME Type: {}", mimeType);
                         intent.setType(mimeType);
                         
                         // 设置预设文件名
                         if (hint != null && !hint.isEmpty()) {
-                            logInfo("Setting Intent EXTRA_TITLE: " + hint, false);
+                            log.core("Setting Intent EXTRA_TITLE: {}", hint);
                             intent.putExtra(Intent.EXTRA_TITLE, hint);
                         }
                         
-                        logInfo("Launching fileChooserLauncher for SAVE...", false);
+                        log.core("Launching fileChooserLauncher for SAVE...");
                         fileChooserLauncher.launch(intent);
                     } else {
                         // 标准打开文件 (单选或多选)
                         Intent intent = fileChooserParams.createIntent();
-                        logInfo("Standard Intent Action: " + intent.getAction(), false);
-                        logInfo("Launching fileChooserLauncher for OPEN...", false);
+                        log.core("Standard Intent Action: {}", intent.getAction());
+                        log.core("Launching fileChooserLauncher for OPEN...");
                         fileChooserLauncher.launch(intent);
                     }
                 } catch (Exception e) {
-                    logError("CRITICAL: File Chooser Launch Exception: " + Log.getStackTraceString(e));
+                    log.error("CRITICAL: File Chooser Launch Exception: {}", Log.getStackTraceString(e));
                     if (mUploadCallback != null) {
                         mUploadCallback.onReceiveValue(null);
                         mUploadCallback = null;
                     }
                     return false;
                 }
-                logInfo("onShowFileChooser EXIT (Returning TRUE)", false);
+                log.core("onShowFileChooser EXIT (Returning TRUE)");
                 return true;
             }
 
             @Override
             public boolean onConsoleMessage(android.webkit.ConsoleMessage consoleMessage) {
+                boolean isError = consoleMessage.messageLevel() == android.webkit.ConsoleMessage.MessageLevel.ERROR;
+                LogStore.Level level = isError ? LogStore.Level.ERROR : LogStore.Level.INFO;
+                // 页面可能大量输出 console 日志，关闭详细日志时直接跳过字符串拼接
+                if (!log.isEnabled(level)) return true;
                 String msg = "JS Console [" + consoleMessage.messageLevel() + "]: " + consoleMessage.message() 
                            + " (at " + consoleMessage.sourceId() + ":" + consoleMessage.lineNumber() + ")";
-                if (consoleMessage.messageLevel() == android.webkit.ConsoleMessage.MessageLevel.ERROR) {
-                    logError(msg);
+                if (isError) {
+                    log.error(msg);
                 } else {
-                    logInfo(msg, true);
+                    log.info(msg);
                 }
                 return true;
             }
 
             @Override
             public void onPermissionRequest(android.webkit.PermissionRequest request) {
-                logInfo("WebView onPermissionRequest: " + Arrays.toString(request.getResources()), false);
+                log.core("WebView onPermissionRequest: {}", (Object) request.getResources());
                 // 仅对信任的本地域名授权
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     String origin = request.getOrigin().toString();
                     if ("https://localhost".equals(origin) || "https://localhost/".equals(origin)) {
                         request.grant(request.getResources());
                     } else {
-                        logError("Blocked permission request from untrusted origin: " + origin);
+                        log.error("Blocked permission request from untrusted origin: {}", origin);
                         request.deny();
                     }
                 }
@@ -489,12 +593,8 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public boolean onCreateWindow(WebView view, boolean isDialog, boolean isUserGesture, android.os.Message resultMsg) {
-                logInfo("WebView onCreateWindow called (isDialog=" + isDialog + ", isUserGesture=" + isUserGesture + ")", false);
-                // 对于文件拾取器触发的“窗口”，我们通常不需要真正创建新窗口，
-                // 但返回 true 并处理它可以防止某些内核直接取消操作。
-                WebView.HitTestResult result = view.getHitTestResult();
-                logInfo("HitTestResult type: " + result.getType(), true);
-                return false;
+                log.core("WebView onCreateWindow called (isDialog={}, isUserGesture={})", isDialog, isUserGesture);
+                return openChildWindow(resultMsg);
             }
 
             /**
@@ -572,6 +672,41 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    /**
+     * 为 window.open 打开子窗口：从 WebView 池取出一个实例叠放在当前窗口之上，交给 WebView 作为新窗口。
+     * 子窗口与主窗口共享资源加载器；页面调用 window.close() 或返回键退到其首页之外时关闭并销毁。
+     */
+    private boolean openChildWindow(android.os.Message resultMsg) {
+        long start = SystemClock.uptimeMillis();
+        WebView child = app.webViewPool().acquire(this);
+        child.setWebChromeClient(new WebChromeClient() {
+            @Override
+            public boolean onCreateWindow(WebView view, boolean isDialog, boolean isUserGesture, android.os.Message msg) {
+                return openChildWindow(msg);
+            }
+
+            @Override
+            public void onCloseWindow(WebView window) {
+                closeChildWindow(window);
+            }
+        });
+        webViewContainer.addView(child,
+                new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        childWindows.push(child);
+        WebView.WebViewTransport transport = (WebView.WebViewTransport) resultMsg.obj;
+        transport.setWebView(child);
+        resultMsg.sendToTarget();
+        log.core("Child window opened in {} ms ({})", SystemClock.uptimeMillis() - start, app.webViewPool().stats());
+        app.webViewPool().prefill(1);
+        return true;
+    }
+
+    private void closeChildWindow(WebView child) {
+        if (!childWindows.remove(child)) return;
+        app.webViewPool().discard(child);
+        log.core("Child window closed, {} still open", childWindows.size());
+    }
+
     /**
      * 显示底部工具栏
      */
@@ -595,47 +730,21 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * 记录普通信息日志（核心生命周期日志不受开关限制）。
-     */
-    private void logInfo(String message) {
-        logInfo(message, false);
-    }
-
-    /**
-     * 记录信息日志。
-     * @param message 消息
-     * @param isVerbose 是否为冗余日志（受开关控制）
+     * 日志输出到 logcat 并刷新调试面板。核心逻辑使用 Log.e 确保在 adb logcat 中不被丢失。
      */
-    private void logInfo(String message, boolean isVerbose) {
-        if (isDetailedLogEnabled) {
-            String timestamp = new java.text.SimpleDateFormat("HH:mm:ss.SSS", java.util.Locale.getDefault()).format(new java.util.Date());
-            String level = isVerbose ? "[INFO]" : "[CORE]";
-            String entry = "[" + timestamp + "] " + level + " " + message + "\n\n";
-            errorLogs.append(entry);
-            // 核心逻辑使用 Log.e 确保在 adb logcat 中不被丢失
-            if (!isVerbose) {
+    private void onLog(LogStore.Level level, String message) {
+        switch (level) {
+            case CORE:
                 Log.e(TAG, "[CORE_INFO] " + message);
-            } else {
+                break;
+            case INFO:
                 Log.i(TAG, message);
-            }
-            // 实时输出到 TextView (如果可见)
-            if (logTextView != null && logContainer != null && logContainer.getVisibility() == View.VISIBLE) {
-                runOnUiThread(() -> logTextView.setText(errorLogs.toString()));
-            }
-        }
-    }
-
-    /**
-     * 记录错误日志并输出到控制台及调试面板。
-     */
-    private void logError(String message) {
-        String timestamp = new java.text.SimpleDateFormat("HH:mm:ss.SSS", java.util.Locale.getDefault()).format(new java.util.Date());
-        String entry = "[" + timestamp + "] [ERROR] " + message + "\n\n";
-        errorLogs.append(entry);
-        Log.e(TAG, message);
-        if (logTextView != null && logContainer != null && logContainer.getVisibility() == View.VISIBLE) {
-            runOnUiThread(() -> logTextView.setText(errorLogs.toString()));
+                break;
+            default:
+                Log.e(TAG, message);
+                break;
         }
+        if (logViewer != null) logViewer.onLogAppended();
     }
 
     /**
@@ -695,7 +804,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * 设置返回键拦截逻辑：优先关闭日志、退出全屏、网页后退，最后才退出应用。
+     * 设置返回键拦截逻辑：优先关闭日志、退出全屏、子窗口后退或关闭、网页后退，最后才退出应用。
      */
     private void setupBackPressed() {
         getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
@@ -703,10 +812,18 @@ public class MainActivity extends AppCompatActivity {
             public void handleOnBackPressed() {
                 if (logContainer.getVisibility() == View.VISIBLE) {
                     logContainer.setVisibility(View.GONE);
+                    logViewer.hide();
                 } else if (settingsContainer.getVisibility() == View.VISIBLE) {
                     settingsContainer.setVisibility(View.GONE);
                 } else if (customView != null) {
                     exitFullscreen();
+                } else if (!childWindows.isEmpty()) {
+                    WebView child = childWindows.peek();
+                    if (child.canGoBack()) {
+                        child.goBack();
+                    } else {
+                        closeChildWindow(child);
+                    }
                 } else if (webView.canGoBack()) {
                     webView.goBack();
                 } else {
@@ -722,6 +839,7 @@ public class MainActivity extends AppCompatActivity {
      * 记录当前应用的关键权限持有状态。
      */
     private void logPermissionStatus() {
+        if (!log.isEnabled(LogStore.Level.INFO)) return;
         String[] permissions;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
             permissions = new String[]{
@@ -741,96 +859,6 @@ public class MainActivity extends AppCompatActivity {
             boolean granted = ContextCompat.checkSelfPermission(this, p) == PackageManager.PERMISSION_GRANTED;
             sb.append(p.substring(p.lastIndexOf('.') + 1)).append("=").append(granted ? "GRANTED" : "DENIED").append(", ");
         }
-        logInfo(sb.toString(), true);
-    }
-
-    /**
-     * 内部辅助类：负责拦截 WebView 的网络请求，并将其重定向到应用的 assets 目录。
-     */
-    private static class AssetResourceLoader {
-        private final WeakReference<MainActivity> activityRef;
-        private final Context appContext;
-        private final String virtualDomain;
-        private final String localAssetBase;
-        private Map<String, String> mimeTypes;
-
-        public AssetResourceLoader(MainActivity activity, String domain, String assetBase) {
-            this.activityRef = new WeakReference<>(activity);
-            this.appContext = activity.getApplicationContext();
-            this.virtualDomain = domain;
-            this.localAssetBase = assetBase;
-            initMimeTypes();
-        }
-
-        public WebResourceResponse shouldIntercept(Uri url) {
-            MainActivity activity = activityRef.get();
-            if (activity != null) {
-                activity.logInfo("Intercepting URL: " + url.toString());
-            }
-            if (url != null && url.getHost() != null && url.getHost().equals(virtualDomain)) {
-                String assetPath = "";
-                try {
-                    String path = url.getPath();
-                    if (path == null || path.equals("/") || path.isEmpty()) {
-                        path = "/index.html";
-                    }
-                    if (path.startsWith("/")) {
-                        path = path.substring(1);
-                    }
-                    assetPath = (localAssetBase.isEmpty() ? "" : localAssetBase + "/") + path;
-
-                    InputStream stream = appContext.getAssets().open(assetPath);
-                    String mimeType = getMimeType(assetPath);
-                    return new WebResourceResponse(mimeType, "UTF-8", stream);
-                } catch (IOException e) {
-                    if (activity != null) {
-                        activity.logError("Asset File not found: " + assetPath);
-                    }
-                    String errorHtml = "<html><body><h2 style='color:red;'>404 Not Found</h2><p>" + assetPath + "</p></body></html>";
-                    return new WebResourceResponse("text/html", "UTF-8", 404, "Not Found", null, new ByteArrayInputStream(errorHtml.getBytes()));
-                }
-            }
-            return null;
-        }
-
-        private void initMimeTypes() {
-            mimeTypes = new HashMap<>();
-            // 基础类型
-            mimeTypes.put("html", "text/html");
-            mimeTypes.put("css", "text/css");
-            mimeTypes.put("js", "application/javascript");
-            mimeTypes.put("json", "application/json");
-            // 图片
-            mimeTypes.put("png", "image/png");
-            mimeTypes.put("jpg", "image/jpeg");
-            mimeTypes.put("jpeg", "image/jpeg");
-            mimeTypes.put("gif", "image/gif");
-            mimeTypes.put("webp", "image/webp");
-            mimeTypes.put("svg", "image/svg+xml");
-            mimeTypes.put("ico", "image/x-icon");
-            // WebAssembly
-            mimeTypes.put("wasm", "application/wasm");
-            // 字体
-            mimeTypes.put("woff", "font/woff");
-            mimeTypes.put("woff2", "font/woff2");
-            mimeTypes.put("ttf", "font/ttf");
-            mimeTypes.put("otf", "font/otf");
-            // 媒体
-            mimeTypes.put("mp3", "audio/mpeg");
-            mimeTypes.put("mp4", "video/mp4");
-            mimeTypes.put("wav", "audio/wav");
-            mimeTypes.put("webm", "video/webm");
-            // 其他
-            mimeTypes.put("txt", "text/plain");
-            mimeTypes.put("xml", "application/xml");
-        }
-
-        private String getMimeType(String url) {
-            String extension = "";
-            int i = url.lastIndexOf('.');
-            if (i > 0) extension = url.substring(i + 1);
-            String mime = mimeTypes.get(extension);
-            return mime != null ? mime : "application/octet-stream";
-        }
+        log.info(sb.toString());
     }
 }
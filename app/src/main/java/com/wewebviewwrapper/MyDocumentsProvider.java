@@ -2,19 +2,51 @@ package com.wewebviewwrapper;
 
 import android.database.Cursor;
 import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Bundle;
 import android.os.CancellationSignal;
+import android.os.FileObserver;
 import android.os.ParcelFileDescriptor;
 import android.provider.DocumentsContract;
 import android.provider.DocumentsProvider;
 import android.webkit.MimeTypeMap;
+import com.wewebviewwrapper.core.LogFormat;
+import com.wewebviewwrapper.core.BundleStore;
+import com.wewebviewwrapper.core.DirectoryLister;
+import com.wewebviewwrapper.core.FileEntry;
+import com.wewebviewwrapper.core.FileTransfer;
+import com.wewebviewwrapper.core.LogJournal;
+import com.wewebviewwrapper.core.LogStore;
+import com.wewebviewwrapper.core.SearchIndex;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
 
 public class MyDocumentsProvider extends DocumentsProvider {
     private static final String AUTHORITY = "com.wewebviewwrapper.provider";
     private static final String ROOT_ID = "root";
+    // 虚拟文档：持久化日志文件解码为文本后以 gzip 流式导出，文档 ID 含 ':'，不会与文件路径冲突
+    private static final String LOG_EXPORT_ID = "journal:export";
+    private static final String LOG_EXPORT_NAME = "wewebview-log.txt.gz";
+    private static final String LOG_EXPORT_MIME = "application/gzip";
 
     private static final String[] DEFAULT_ROOT_PROJECTION = new String[]{
             DocumentsContract.Root.COLUMN_ROOT_ID,
@@ -34,6 +66,49 @@ public class MyDocumentsProvider extends DocumentsProvider {
             DocumentsContract.Document.COLUMN_SIZE
     };
 
+    // 文档列的取值方式：投影按列序预先解析为这些编号，逐行填充时不再比较列名，也只计算请求的列
+    private static final int COLUMN_UNKNOWN = 0;
+    private static final int COLUMN_DOCUMENT_ID = 1;
+    private static final int COLUMN_DISPLAY_NAME = 2;
+    private static final int COLUMN_SIZE = 3;
+    private static final int COLUMN_MIME_TYPE = 4;
+    private static final int COLUMN_LAST_MODIFIED = 5;
+    private static final int COLUMN_FLAGS = 6;
+
+    // Context.getFilesDir() 每次调用都会检查目录是否存在，缓存以免逐行多一次 stat
+    private File filesDir;
+
+    // 第一页 500 项；最多缓存并监听 8 个目录，无法监听的快照最多复用 30 秒
+    private static final int LISTING_PAGE_SIZE = 500;
+    private final DirectoryLister lister = new DirectoryLister(
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "DocumentListing");
+                thread.setDaemon(true);
+                return thread;
+            }), LISTING_PAGE_SIZE, 8, TimeUnit.SECONDS.toMillis(30), this::watch);
+
+    // 不监听 MODIFY：写入过程中逐块触发，大小与修改时间以写入结束时的 CLOSE_WRITE 为准
+    private static final int OBSERVED_EVENTS = FileObserver.CREATE | FileObserver.DELETE
+            | FileObserver.MOVED_FROM | FileObserver.MOVED_TO | FileObserver.CLOSE_WRITE | FileObserver.ATTRIB
+            | FileObserver.DELETE_SELF | FileObserver.MOVE_SELF;
+    // 文件变化后合并通知的延迟：连续写入多个文件时客户端只重新查询一次
+    private static final long NOTIFY_DELAY_MILLIS = 100;
+    private final ScheduledExecutorService notifier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DocumentNotify");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Uri> pendingNotifications = new LinkedHashSet<>();
+
+    // 搜索最多返回 500 项；索引与文件系统的同步（逐个比较目录修改时间）最多每 30 秒一次
+    private static final int SEARCH_LIMIT = 500;
+    private static final long SEARCH_REFRESH_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private SearchIndex searchIndex;
+
+    // 并行复制目录树中文件的线程数：受存储带宽而非 CPU 限制，多于 4 个无明显收益；空闲 30 秒后线程退出
+    private static final int COPY_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private final ThreadPoolExecutor copyExecutor = newCopyExecutor();
+
     @Override
     public boolean onCreate() {
         return true;
@@ -47,35 +122,247 @@ public class MyDocumentsProvider extends DocumentsProvider {
         row.add(DocumentsContract.Root.COLUMN_FLAGS,
                 DocumentsContract.Root.FLAG_SUPPORTS_CREATE |
                 DocumentsContract.Root.FLAG_SUPPORTS_IS_CHILD |
+                DocumentsContract.Root.FLAG_SUPPORTS_SEARCH |
                 DocumentsContract.Root.FLAG_LOCAL_ONLY);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            row.add(DocumentsContract.Root.COLUMN_QUERY_ARGS,
+                    DocumentsContract.QUERY_ARG_DISPLAY_NAME + "\n" + DocumentsContract.QUERY_ARG_MIME_TYPES);
+        }
         row.add(DocumentsContract.Root.COLUMN_TITLE, "WeWebViewWrapper");
-        row.add(DocumentsContract.Root.COLUMN_DOCUMENT_ID, getDocIdForFile(Objects.requireNonNull(getContext()).getFilesDir()));
+        row.add(DocumentsContract.Root.COLUMN_DOCUMENT_ID, ROOT_ID);
         row.add(DocumentsContract.Root.COLUMN_SUMMARY, "App's private storage");
         return result;
     }
 
     @Override
     public Cursor queryDocument(String documentId, String[] projection) throws FileNotFoundException {
-        final MatrixCursor result = new MatrixCursor(projection != null ? projection : DEFAULT_DOCUMENT_PROJECTION);
-        includeFile(result, documentId, null);
+        final String[] columnNames = projection != null ? projection : DEFAULT_DOCUMENT_PROJECTION;
+        final int[] columns = resolveColumns(columnNames);
+        final MatrixCursor result = new MatrixCursor(columnNames, 1);
+        String docId = documentId;
+        if (LOG_EXPORT_ID.equals(documentId)) {
+            result.addRow(logExportRow(columns));
+        } else {
+            File file = getFileForDocId(documentId);
+            // 所在目录被监听时直接取快照中的元数据
+            FileEntry entry = lister.cachedEntry(file.getParentFile().toPath(), file.getName());
+            docId = getDocIdForFile(file);
+            result.addRow(documentRow(columns, docId, file.getName(),
+                    entry != null ? entry : readEntry(file.toPath())));
+        }
+        result.setNotificationUri(Objects.requireNonNull(getContext()).getContentResolver(),
+                DocumentsContract.buildDocumentUri(AUTHORITY, docId));
         return result;
     }
 
+    /**
+     * 目录由 {@link DirectoryLister} 在后台列举并按目录缓存：只等第一页列出即返回，此时游标带 EXTRA_LOADING，
+     * 其余子项继续列举，新的一批到达与列举结束时通知游标的 URI，客户端随之重新查询。
+     * 列举完成后按 sortOrder 返回缓存的有序快照；快照所在目录由 FileObserver 监听，变化时只更新变化的子项并通知客户端。
+     */
     @Override
     public Cursor queryChildDocuments(String parentDocumentId, String[] projection, String sortOrder) throws FileNotFoundException {
-        final MatrixCursor result = new MatrixCursor(projection != null ? projection : DEFAULT_DOCUMENT_PROJECTION);
+        final String[] columnNames = projection != null ? projection : DEFAULT_DOCUMENT_PROJECTION;
+        final int[] columns = resolveColumns(columnNames);
         final File parent = getFileForDocId(parentDocumentId);
-        File[] files = parent.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                includeFile(result, null, file);
+        final String parentId = getDocIdForFile(parent);
+        final boolean isRoot = ROOT_ID.equals(parentId);
+        final String idPrefix = isRoot ? "" : parentId + "/";
+        final Uri uri = DocumentsContract.buildChildDocumentsUri(AUTHORITY, parentId);
+
+        DirectoryLister.Snapshot snapshot;
+        try {
+            // 原始二进制日志目录不直接暴露，改由下方的导出文档提供；网页包由应用自行管理，同样隐藏
+            snapshot = lister.get(parent.toPath(), isRoot ? MyDocumentsProvider::isHiddenInRoot : null,
+                    () -> notifyChange(uri));
+            snapshot.awaitFirstPage();
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            throw new FileNotFoundException("Not a directory: " + parentDocumentId);
+        } catch (IOException e) {
+            throw new FileNotFoundException("Failed to list " + parentDocumentId + ": " + e.getMessage());
+        }
+        // 先取完成状态再取子项：完成前取到的部分列表仍标记为加载中，客户端会再收到一次通知
+        final boolean complete = snapshot.isComplete();
+        final List<FileEntry> entries = snapshot.entries(sortOrder);
+        final MatrixCursor result = new MatrixCursor(columnNames, entries.size() + 1);
+        for (FileEntry entry : entries) {
+            result.addRow(documentRow(columns, idPrefix + entry.name, entry.name, entry));
+        }
+        if (isRoot && LogJournal.fileIn(parent).exists()) {
+            result.addRow(logExportRow(columns));
+        }
+        if (!complete) {
+            Bundle extras = new Bundle();
+            extras.putBoolean(DocumentsContract.EXTRA_LOADING, true);
+            result.setExtras(extras);
+        }
+        result.setNotificationUri(Objects.requireNonNull(getContext()).getContentResolver(), uri);
+        return result;
+    }
+
+    @Override
+    public Cursor querySearchDocuments(String rootId, String query, String[] projection) throws FileNotFoundException {
+        return searchDocuments(query, null, projection);
+    }
+
+    /**
+     * API 29 起系统以查询参数调用，除名称外还可按 MIME 类型筛选（文件应用的“图片”“文档”等筛选条件）。
+     */
+    @Override
+    public Cursor querySearchDocuments(String rootId, String[] projection, Bundle queryArgs) throws FileNotFoundException {
+        return searchDocuments(queryArgs.getString(DocumentsContract.QUERY_ARG_DISPLAY_NAME, ""),
+                queryArgs.getStringArray(DocumentsContract.QUERY_ARG_MIME_TYPES), projection);
+    }
+
+    /**
+     * 在 {@link SearchIndex} 中按名称前缀与子串搜索，只为返回的项读取元数据。
+     * 索引在首次搜索时于后台加载或构建，此前返回带 EXTRA_LOADING 的空结果，就绪后通知客户端重新查询；
+     * 之后每次搜索按需在后台与文件系统同步，索引有变化时同样通知。
+     */
+    private Cursor searchDocuments(String query, String[] mimeTypes, String[] projection) throws FileNotFoundException {
+        final String[] columnNames = projection != null ? projection : DEFAULT_DOCUMENT_PROJECTION;
+        final int[] columns = resolveColumns(columnNames);
+        final SearchIndex index = searchIndex();
+        index.refresh(SEARCH_REFRESH_MILLIS);
+        final List<SearchIndex.Hit> hits = index.search(query, mimeTypes, SEARCH_LIMIT);
+        final MatrixCursor result = new MatrixCursor(columnNames, hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            File file = new File(filesDir(), hit.path);
+            FileEntry entry = lister.cachedEntry(file.getParentFile().toPath(), hit.name);
+            if (entry == null) {
+                try {
+                    entry = FileEntry.read(file.toPath());
+                } catch (IOException e) {
+                    // 索引尚未得知的删除
+                    index.childChanged(file.getParentFile().toPath(), hit.name);
+                    continue;
+                }
             }
+            result.addRow(documentRow(columns, hit.path, hit.name, entry));
+        }
+        if (!index.isReady()) {
+            Bundle extras = new Bundle();
+            extras.putBoolean(DocumentsContract.EXTRA_LOADING, true);
+            result.setExtras(extras);
         }
+        result.setNotificationUri(Objects.requireNonNull(getContext()).getContentResolver(),
+                DocumentsContract.buildSearchDocumentsUri(AUTHORITY, ROOT_ID, query));
         return result;
     }
 
+    /**
+     * 索引文件位于 noBackupFilesDir，不在被索引的 filesDir 之下，也不随应用数据备份。
+     */
+    private synchronized SearchIndex searchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex(filesDir().toPath(),
+                    new File(Objects.requireNonNull(getContext()).getNoBackupFilesDir(), SearchIndex.FILE_NAME),
+                    path -> path.indexOf('/') < 0 && isHiddenInRoot(path), this::getTypeForName,
+                    Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "DocumentSearch");
+                        thread.setDaemon(true);
+                        return thread;
+                    }),
+                    // 搜索游标的通知 URI 带查询参数，按路径匹配时与此 URI 相同
+                    () -> scheduleNotify(DocumentsContract.buildSearchDocumentsUri(AUTHORITY, ROOT_ID, "")));
+        }
+        return searchIndex;
+    }
+
+    private static boolean isHiddenInRoot(String name) {
+        return LogJournal.DIR_NAME.equals(name) || BundleStore.DIR_NAME.equals(name);
+    }
+
+    private void notifyChange(Uri uri) {
+        Objects.requireNonNull(getContext()).getContentResolver().notifyChange(uri, null, false);
+    }
+
+    /**
+     * 延迟 {@link #NOTIFY_DELAY_MILLIS} 后通知 uri，期间重复的通知合并为一次。
+     */
+    private void scheduleNotify(Uri uri) {
+        boolean schedule;
+        synchronized (pendingNotifications) {
+            schedule = pendingNotifications.isEmpty();
+            pendingNotifications.add(uri);
+        }
+        if (schedule) notifier.schedule(this::flushNotifications, NOTIFY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void flushNotifications() {
+        Uri[] uris;
+        synchronized (pendingNotifications) {
+            uris = pendingNotifications.toArray(new Uri[0]);
+            pendingNotifications.clear();
+        }
+        for (Uri uri : uris) {
+            notifyChange(uri);
+        }
+    }
+
+    /**
+     * {@link DirectoryLister} 开始缓存一个目录时调用：为其创建 FileObserver，快照被丢弃时停止监听。
+     */
+    private Runnable watch(Path dir) {
+        DirectoryObserver observer = new DirectoryObserver(dir.toFile());
+        observer.startWatching();
+        return observer::stopWatching;
+    }
+
+    /**
+     * 目录的一个子项发生变化（经本提供器或应用自身的修改）：更新快照中的这一项，通知该目录与该文档的查询。
+     * 增删与重命名还会改变目录自身的修改时间，同时更新目录在上级目录快照中的一项。
+     * @param structural 子项被创建、删除或移动
+     */
+    private void onChildChanged(File dir, String name, boolean structural) {
+        String dirId = getDocIdForFile(dir);
+        boolean isRoot = ROOT_ID.equals(dirId);
+        if (isRoot && isHiddenInRoot(name)) return;
+        lister.childChanged(dir.toPath(), name);
+        if (structural) searchIndex().childChanged(dir.toPath(), name);
+        scheduleNotify(DocumentsContract.buildChildDocumentsUri(AUTHORITY, dirId));
+        scheduleNotify(DocumentsContract.buildDocumentUri(AUTHORITY, isRoot ? name : dirId + "/" + name));
+        if (structural && !isRoot) {
+            onChildChanged(dir.getParentFile(), dir.getName(), false);
+        }
+    }
+
+    /**
+     * 监听一个已缓存目录的直接子项；目录自身被删除或移走时丢弃其快照。
+     * 回调在系统共用的 FileObserver 线程中执行。
+     */
+    private final class DirectoryObserver extends FileObserver {
+        private final File dir;
+
+        @SuppressWarnings("deprecation")
+        DirectoryObserver(File dir) {
+            // 以路径构造的版本在 API 29 废弃，但是 minSdk 26 上唯一可用的构造方法
+            super(dir.getPath(), OBSERVED_EVENTS);
+            this.dir = dir;
+        }
+
+        @Override
+        public void onEvent(int event, String path) {
+            // 去掉 IN_ISDIR 等附加标志
+            event &= FileObserver.ALL_EVENTS;
+            if ((event & (FileObserver.DELETE_SELF | FileObserver.MOVE_SELF)) != 0) {
+                lister.invalidate(dir.toPath());
+                scheduleNotify(DocumentsContract.buildChildDocumentsUri(AUTHORITY, getDocIdForFile(dir)));
+                return;
+            }
+            if (event == 0 || path == null) return;
+            boolean structural = (event & (FileObserver.CREATE | FileObserver.DELETE
+                    | FileObserver.MOVED_FROM | FileObserver.MOVED_TO)) != 0;
+            onChildChanged(dir, path, structural);
+        }
+    }
+
     @Override
     public ParcelFileDescriptor openDocument(String documentId, String mode, CancellationSignal signal) throws FileNotFoundException {
+        if (LOG_EXPORT_ID.equals(documentId)) {
+            if (!"r".equals(mode)) throw new FileNotFoundException("Log export is read-only");
+            return openLogExport();
+        }
         final File file = getFileForDocId(documentId);
         final int accessMode = ParcelFileDescriptor.parseMode(mode);
         return ParcelFileDescriptor.open(file, accessMode);
@@ -94,6 +381,7 @@ public class MyDocumentsProvider extends DocumentsProvider {
         } catch (IOException e) {
             throw new FileNotFoundException("Failed to create document: " + e.getMessage());
         }
+        onChildChanged(parent, file.getName(), true);
         return getDocIdForFile(file);
     }
 
@@ -103,6 +391,8 @@ public class MyDocumentsProvider extends DocumentsProvider {
         if (!deleteRecursive(file)) {
             throw new FileNotFoundException("Failed to delete document");
         }
+        lister.invalidate(file.toPath());
+        onChildChanged(file.getParentFile(), file.getName(), true);
     }
 
     @Override
@@ -112,23 +402,77 @@ public class MyDocumentsProvider extends DocumentsProvider {
         if (!file.renameTo(newFile)) {
             throw new FileNotFoundException("Failed to rename document");
         }
+        lister.invalidate(file.toPath());
+        onChildChanged(file.getParentFile(), file.getName(), true);
+        onChildChanged(newFile.getParentFile(), newFile.getName(), true);
         return getDocIdForFile(newFile);
     }
 
+    /**
+     * 在服务端复制，客户端无需经 openDocument 读出再写入：文件以 FileChannel.transferTo 复制，目录树并行复制。
+     * 目标目录中已有同名文档时改用 "name (1).ext" 形式的名称。
+     */
     @Override
-    public boolean isChildDocument(String parentDocumentId, String documentId) {
+    public String copyDocument(String sourceDocumentId, String targetParentDocumentId) throws FileNotFoundException {
+        if (LOG_EXPORT_ID.equals(sourceDocumentId)) throw new FileNotFoundException("Log export cannot be copied");
+        File source = getFileForDocId(sourceDocumentId);
+        File targetParent = getFileForDocId(targetParentDocumentId);
+        File target;
+        try {
+            target = FileTransfer.uniqueTarget(targetParent.toPath(), source.getName(), source.isDirectory()).toFile();
+            FileTransfer.copy(source.toPath(), target.toPath(), copyExecutor);
+        } catch (IOException e) {
+            throw new FileNotFoundException("Failed to copy document: " + e.getMessage());
+        }
+        onChildChanged(targetParent, target.getName(), true);
+        return getDocIdForFile(target);
+    }
+
+    /**
+     * 应用私有目录位于同一文件系统，移动为一次原子重命名，耗时与文件大小无关。
+     */
+    @Override
+    public String moveDocument(String sourceDocumentId, String sourceParentDocumentId, String targetParentDocumentId)
+            throws FileNotFoundException {
+        if (LOG_EXPORT_ID.equals(sourceDocumentId)) throw new FileNotFoundException("Log export cannot be moved");
+        File source = getFileForDocId(sourceDocumentId);
+        File targetParent = getFileForDocId(targetParentDocumentId);
+        File target;
         try {
-            File parent = getFileForDocId(parentDocumentId);
-            File child = getFileForDocId(documentId);
-            return child.getAbsolutePath().startsWith(parent.getAbsolutePath());
-        } catch (FileNotFoundException e) {
-            return false;
+            target = FileTransfer.uniqueTarget(targetParent.toPath(), source.getName(), source.isDirectory()).toFile();
+            FileTransfer.move(source.toPath(), target.toPath(), copyExecutor);
+        } catch (IOException e) {
+            throw new FileNotFoundException("Failed to move document: " + e.getMessage());
         }
+        lister.invalidate(source.toPath());
+        onChildChanged(source.getParentFile(), source.getName(), true);
+        onChildChanged(targetParent, target.getName(), true);
+        return getDocIdForFile(target);
+    }
+
+    private static ThreadPoolExecutor newCopyExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(COPY_THREADS, COPY_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "DocumentCopy-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public boolean isChildDocument(String parentDocumentId, String documentId) {
+        if (LOG_EXPORT_ID.equals(documentId)) return ROOT_ID.equals(parentDocumentId);
+        File parent = getFileForDocId(parentDocumentId);
+        File child = getFileForDocId(documentId);
+        return child.getAbsolutePath().startsWith(parent.getAbsolutePath());
     }
 
     private String getDocIdForFile(File file) {
         String path = file.getAbsolutePath();
-        String baseDir = Objects.requireNonNull(getContext()).getFilesDir().getAbsolutePath();
+        String baseDir = filesDir().getAbsolutePath();
         if (path.startsWith(baseDir)) {
             path = path.substring(baseDir.length());
         }
@@ -138,47 +482,132 @@ public class MyDocumentsProvider extends DocumentsProvider {
         return path.isEmpty() ? ROOT_ID : path;
     }
 
-    private File getFileForDocId(String documentId) throws FileNotFoundException {
-        File baseDir = Objects.requireNonNull(getContext()).getFilesDir();
+    private File filesDir() {
+        File dir = filesDir;
+        if (dir == null) {
+            dir = Objects.requireNonNull(getContext()).getFilesDir();
+            filesDir = dir;
+        }
+        return dir;
+    }
+
+    /**
+     * 只做路径映射，不检查文件是否存在：随后的读取、列举或打开操作在文件不存在时自然失败，省去一次 stat。
+     */
+    private File getFileForDocId(String documentId) {
+        File baseDir = filesDir();
         if (ROOT_ID.equals(documentId) || documentId.isEmpty()) {
             return baseDir;
         }
-        File file = new File(baseDir, documentId);
-        if (!file.exists()) throw new FileNotFoundException("File not found: " + documentId);
-        return file;
+        return new File(baseDir, documentId);
     }
 
-    private void includeFile(MatrixCursor result, String documentId, File file) throws FileNotFoundException {
-        if (file == null) {
-            file = getFileForDocId(documentId);
-        } else {
-            documentId = getDocIdForFile(file);
+    private static FileEntry readEntry(Path path) throws FileNotFoundException {
+        try {
+            return FileEntry.read(path);
+        } catch (IOException e) {
+            throw new FileNotFoundException("File not found: " + path);
         }
+    }
 
-        int flags = 0;
-        if (file.isDirectory()) {
+    private static int[] resolveColumns(String[] projection) {
+        int[] columns = new int[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            switch (projection[i]) {
+                case DocumentsContract.Document.COLUMN_DOCUMENT_ID: columns[i] = COLUMN_DOCUMENT_ID; break;
+                case DocumentsContract.Document.COLUMN_DISPLAY_NAME: columns[i] = COLUMN_DISPLAY_NAME; break;
+                case DocumentsContract.Document.COLUMN_SIZE: columns[i] = COLUMN_SIZE; break;
+                case DocumentsContract.Document.COLUMN_MIME_TYPE: columns[i] = COLUMN_MIME_TYPE; break;
+                case DocumentsContract.Document.COLUMN_LAST_MODIFIED: columns[i] = COLUMN_LAST_MODIFIED; break;
+                case DocumentsContract.Document.COLUMN_FLAGS: columns[i] = COLUMN_FLAGS; break;
+                default: columns[i] = COLUMN_UNKNOWN; break;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * 按投影构建一行，只计算请求的列。
+     * @param entry 文件元数据，投影不需要时为 null
+     */
+    private Object[] documentRow(int[] columns, String documentId, String name, FileEntry entry) {
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            switch (columns[i]) {
+                case COLUMN_DOCUMENT_ID: row[i] = documentId; break;
+                case COLUMN_DISPLAY_NAME: row[i] = name; break;
+                case COLUMN_SIZE: row[i] = entry.size; break;
+                case COLUMN_MIME_TYPE:
+                    row[i] = entry.directory ? DocumentsContract.Document.MIME_TYPE_DIR : getTypeForName(name);
+                    break;
+                case COLUMN_LAST_MODIFIED: row[i] = entry.lastModified; break;
+                case COLUMN_FLAGS: row[i] = flagsFor(entry); break;
+                default: break;
+            }
+        }
+        return row;
+    }
+
+    private static int flagsFor(FileEntry entry) {
+        int flags = DocumentsContract.Document.FLAG_SUPPORTS_DELETE | DocumentsContract.Document.FLAG_SUPPORTS_RENAME
+                | DocumentsContract.Document.FLAG_SUPPORTS_COPY | DocumentsContract.Document.FLAG_SUPPORTS_MOVE;
+        if (entry.directory) {
             flags |= DocumentsContract.Document.FLAG_DIR_SUPPORTS_CREATE;
-        } else if (file.canWrite()) {
+        } else if (entry.writable) {
             flags |= DocumentsContract.Document.FLAG_SUPPORTS_WRITE;
         }
-        flags |= DocumentsContract.Document.FLAG_SUPPORTS_DELETE;
-        flags |= DocumentsContract.Document.FLAG_SUPPORTS_RENAME;
+        return flags;
+    }
 
-        final MatrixCursor.RowBuilder row = result.newRow();
-        row.add(DocumentsContract.Document.COLUMN_DOCUMENT_ID, documentId);
-        row.add(DocumentsContract.Document.COLUMN_DISPLAY_NAME, file.getName());
-        row.add(DocumentsContract.Document.COLUMN_SIZE, file.length());
-        row.add(DocumentsContract.Document.COLUMN_MIME_TYPE, getTypeForFile(file));
-        row.add(DocumentsContract.Document.COLUMN_LAST_MODIFIED, file.lastModified());
-        row.add(DocumentsContract.Document.COLUMN_FLAGS, flags);
+    private Object[] logExportRow(int[] columns) {
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            switch (columns[i]) {
+                case COLUMN_DOCUMENT_ID: row[i] = LOG_EXPORT_ID; break;
+                case COLUMN_DISPLAY_NAME: row[i] = LOG_EXPORT_NAME; break;
+                // 压缩后的大小只有在流式生成时才能确定
+                case COLUMN_SIZE: row[i] = null; break;
+                case COLUMN_MIME_TYPE: row[i] = LOG_EXPORT_MIME; break;
+                case COLUMN_LAST_MODIFIED: row[i] = LogJournal.fileIn(filesDir()).lastModified(); break;
+                case COLUMN_FLAGS: row[i] = 0; break;
+                default: break;
+            }
+        }
+        return row;
     }
 
-    private String getTypeForFile(File file) {
-        if (file.isDirectory()) {
-            return DocumentsContract.Document.MIME_TYPE_DIR;
-        } else {
-            return getTypeForName(file.getName());
+    /**
+     * 通过管道流式导出日志：后台线程解码日志文件并边格式化边 gzip 压缩写入，调用方无需等待全部生成。
+     * 日志文件以只读映射读取，可与应用进程的写入并发进行。
+     */
+    private ParcelFileDescriptor openLogExport() throws FileNotFoundException {
+        final File journalFile = LogJournal.fileIn(filesDir());
+        if (!journalFile.exists()) throw new FileNotFoundException("Log journal not found");
+        final ParcelFileDescriptor[] pipe;
+        try {
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (IOException e) {
+            throw new FileNotFoundException("Failed to create pipe: " + e.getMessage());
         }
+        new Thread(() -> {
+            try {
+                Writer out = new OutputStreamWriter(new GZIPOutputStream(
+                        new ParcelFileDescriptor.AutoCloseOutputStream(pipe[1]), 8192), StandardCharsets.UTF_8);
+                StringBuilder sb = new StringBuilder(1024);
+                for (LogStore.Entry entry : LogJournal.decode(journalFile)) {
+                    sb.setLength(0);
+                    LogFormat.appendEntry(sb, entry);
+                    out.append(sb);
+                }
+                out.close();
+            } catch (IOException e) {
+                try {
+                    pipe[1].closeWithError(e.getMessage());
+                } catch (IOException ignored) {
+                }
+            }
+        }, "LogExport").start();
+        return pipe[0];
     }
 
     private String getTypeForName(String name) {
@@ -0,0 +1,144 @@
+package com.wewebviewwrapper;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebView;
+
+import com.wewebviewwrapper.core.AppLog;
+import com.wewebviewwrapper.core.StartupHistory;
+import com.wewebviewwrapper.core.StartupTrace;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 启动阶段记录器：以 SystemClock.elapsedRealtimeNanos 为各阶段打点，整个启动过程同时输出为 systrace / Perfetto
+ * 的异步区段，主线程上的各步骤由调用方以 Trace 区段包裹。页面的 first-paint / first-contentful-paint
+ * 经 JavaScript 桥接收集：页面首次可见时注入一个 PerformanceObserver，将 paint 条目回传到本地。
+ * 首次内容绘制到达（或 Activity 停止）后，时间线写入 {@link StartupHistory}，设置面板中可与此前的启动对比。
+ */
+class StartupTracer {
+
+    static final String BRIDGE_NAME = "__wwStartup";
+    private static final String LAUNCH_SECTION = "WW:launch";
+    private static final int LAUNCH_COOKIE = 0x5757;
+    static final int HISTORY_SIZE = 10;
+
+    // buffered: true 使注入前已发生的 paint 条目也能收到；重复注入（如页面内导航）时只注册一次
+    private static final String PAINT_OBSERVER_JS = "(function(){if(window.__wwPaintObserved||!window." + BRIDGE_NAME
+            + ")return;window.__wwPaintObserved=1;try{new PerformanceObserver(function(l){l.getEntries().forEach(function(e){"
+            + BRIDGE_NAME + ".paint(e.name,e.startTime,performance.timeOrigin)})}).observe({type:'paint',buffered:true})}"
+            + "catch(e){}})();";
+
+    private final AppLog log;
+    private final StartupTrace trace;
+    private final StartupHistory history;
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    /**
+     * @param warm 启动时 WebView 磁盘缓存是否保留了上次运行的条目
+     */
+    StartupTracer(Context context, AppLog log, boolean warm) {
+        this.log = log;
+        this.trace = new StartupTrace(System.currentTimeMillis(), warm);
+        this.history = StartupHistory.in(context.getFilesDir(), HISTORY_SIZE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(LAUNCH_SECTION, LAUNCH_COOKIE);
+        }
+    }
+
+    /**
+     * 后台整理完 WebView 磁盘缓存时调用：更新冷热标记并记录 WEB_CACHE_READY。
+     * @param warm 缓存是否保留了上次运行的条目
+     */
+    void webCacheReady(boolean warm) {
+        trace.setWarm(warm);
+        mark(StartupTrace.Phase.WEB_CACHE_READY);
+    }
+
+    /**
+     * 以当前时刻记录阶段，已记录过时忽略。
+     */
+    void mark(StartupTrace.Phase phase) {
+        mark(phase, SystemClock.elapsedRealtimeNanos());
+    }
+
+    void mark(StartupTrace.Phase phase, long elapsedRealtimeNanos) {
+        if (trace.mark(phase, elapsedRealtimeNanos)) {
+            log.core("Startup {}: {} ms", phase, trace.offsetMicros(phase) / 1000);
+        }
+    }
+
+    /**
+     * @return 阶段相对于时间线起点的微秒数，未记录时返回 -1
+     */
+    long offsetMicros(StartupTrace.Phase phase) {
+        return trace.offsetMicros(phase);
+    }
+
+    void install(WebView webView) {
+        webView.addJavascriptInterface(new Bridge(), BRIDGE_NAME);
+    }
+
+    /**
+     * 在页面中注册 paint 观察者，在页面首次可见时调用；启动记录完成后不再注入。
+     */
+    void observePaints(WebView webView) {
+        if (!finished.get()) {
+            webView.evaluateJavascript(PAINT_OBSERVER_JS, null);
+        }
+    }
+
+    /**
+     * 结束本次启动的记录并写入历史，只生效一次。
+     */
+    void finish() {
+        if (!finished.compareAndSet(false, true)) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(LAUNCH_SECTION, LAUNCH_COOKIE);
+        }
+        log.core("Startup timeline: {}", trace.timeline());
+        try {
+            history.append(trace);
+        } catch (IOException e) {
+            log.error("Failed to save startup trace: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return 本次启动的时间线与最近几次启动的对比，供设置面板显示
+     */
+    String describe() {
+        StringBuilder sb = new StringBuilder(trace.timeline());
+        try {
+            String recent = history.summary();
+            if (!recent.isEmpty()) {
+                sb.append("\n\nRecent launches (ms):\n").append(recent);
+            }
+        } catch (IOException e) {
+            sb.append("\n\nStartup history unavailable: ").append(e.getMessage());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 暴露给页面的桥接对象，只接收 paint 时间，其他调用一律忽略。方法在 WebView 的 JavaBridge 线程上调用。
+     */
+    private final class Bridge {
+        @JavascriptInterface
+        public void paint(String name, double startTime, double timeOrigin) {
+            StartupTrace.Phase phase = "first-contentful-paint".equals(name) ? StartupTrace.Phase.FIRST_CONTENTFUL_PAINT
+                    : "first-paint".equals(name) ? StartupTrace.Phase.FIRST_PAINT : null;
+            if (phase == null || finished.get()) return;
+            // paint 时间相对于页面的 timeOrigin（墙上时间毫秒），换算到 elapsedRealtime 时钟
+            double ageMillis = System.currentTimeMillis() - (timeOrigin + startTime);
+            mark(phase, SystemClock.elapsedRealtimeNanos() - (long) (ageMillis * 1_000_000));
+            if (phase == StartupTrace.Phase.FIRST_CONTENTFUL_PAINT) {
+                finish();
+            }
+        }
+    }
+}
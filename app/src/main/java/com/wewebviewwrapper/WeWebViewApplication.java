@@ -0,0 +1,267 @@
+package com.wewebviewwrapper;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.webkit.WebSettings;
+
+import com.wewebviewwrapper.core.AppLog;
+import com.wewebviewwrapper.core.BundleStore;
+import com.wewebviewwrapper.core.BundleUpdater;
+import com.wewebviewwrapper.core.CachePolicy;
+import com.wewebviewwrapper.core.LogJournal;
+import com.wewebviewwrapper.core.LogStore;
+import com.wewebviewwrapper.core.StartupTrace;
+import com.wewebviewwrapper.core.WebCacheBudget;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 应用进程入口，在第一个 Activity 创建之前开始启动准备，使其与 Activity 的创建、布局并行：
+ * 后台线程依次整理 WebView 磁盘缓存、加载 WebView 实现（类与原生库），再加载资源索引并预读入口页面。
+ * 主线程首次创建 WebView 前等待缓存整理完成（见 {@link #awaitWebCache()}）。
+ * 日志、资源加载器与首次启动的时间线在进程内共享，Activity 重建时直接沿用。
+ * WebView 由进程内的 {@link WebViewPool} 提供：Activity 退出后（进程仍存活时）可在主线程空闲时预先创建一个，
+ * 下一次启动的 Activity 直接接管。
+ */
+public class WeWebViewApplication extends Application {
+
+    private static final String WEB_CACHE_PREFS = "web_cache_prefs";
+    static final String START_PAGE = "index.html";
+    // 池中保留的空闲 WebView 数：一个供子窗口或下一次启动的主窗口，一个供嵌套的子窗口
+    private static final int WEB_VIEW_POOL_SIZE = 2;
+
+    // 环形日志存储，最多保留 4096 条，避免长时间运行时日志无限增长
+    final AppLog log = new AppLog(new LogStore(4096));
+    private AssetResourceLoader assetLoader;
+    private volatile WebCacheBudget.Result webCacheState;
+    // 缓存整理完成后释放；WebView 须在此之后创建，否则其打开的缓存文件可能被淘汰或清空
+    private final CountDownLatch webCacheReady = new CountDownLatch(1);
+    // 进程启动后的首个时间线，由首个 Activity 接管；之后的 Activity 各自从 onCreate 开始记录
+    private StartupTracer launchTracer;
+    private WebViewPool webViewPool;
+    // 网页包更新每个进程只检查一次，Activity 重建（如旋转屏幕）不会再次启动
+    private final AtomicBoolean bundleUpdateStarted = new AtomicBoolean();
+
+    @Override
+    public void onCreate() {
+        long createNanos = SystemClock.elapsedRealtimeNanos();
+        super.onCreate();
+        // 日志文件须在任何日志与崩溃处理之前打开：上次运行的条目先恢复，本次的条目随后按序写入文件。
+        // 只是一次小文件的内存映射，在主线程同步完成
+        openJournal();
+        installCrashHandler();
+
+        CachePolicy.setHashedNamePattern(BuildConfig.WEB_ASSETS_HASHED_NAME_PATTERN);
+        assetLoader = new AssetResourceLoader(this, log, "localhost", "dist", BundleStore.in(getFilesDir()));
+        webViewPool = new WebViewPool(this, log, assetLoader, WEB_VIEW_POOL_SIZE, this::awaitWebCache);
+
+        // 冷热标记在缓存整理完成后确定
+        launchTracer = new StartupTracer(this, log, false);
+        launchTracer.mark(StartupTrace.Phase.PROCESS_START, Process.getStartElapsedRealtime() * 1_000_000);
+        launchTracer.mark(StartupTrace.Phase.APP_CREATE, createNanos);
+
+        final StartupTracer tracer = launchTracer;
+        new Thread(() -> warmUp(tracer), "WarmUp").start();
+    }
+
+    /**
+     * 后台启动准备：整理 WebView 磁盘缓存，须在加载 WebView 实现之前完成。
+     * 启用预热（startup.warmUp）时随后由 WebSettings.getDefaultUserAgent 触发 WebView 实现的加载（WebView 创建时最耗时的一步），
+     * 再加载资源索引、资源包与网页包，并将入口页面及其关键子资源读入内存缓存。
+     * 主线程随后创建 WebView 时，若加载仍在进行则等待其完成，不会重复加载。
+     */
+    private void warmUp(StartupTracer tracer) {
+        long start = SystemClock.uptimeMillis();
+        Trace.beginSection("WW:prepareWebCache");
+        try {
+            prepareWebCache();
+        } finally {
+            webCacheReady.countDown();
+            Trace.endSection();
+        }
+        tracer.webCacheReady(isWebCacheWarm());
+        if (!BuildConfig.STARTUP_WARM_UP) return;
+
+        Trace.beginSection("WW:loadWebViewProvider");
+        try {
+            WebSettings.getDefaultUserAgent(this);
+            tracer.mark(StartupTrace.Phase.PROVIDER_READY);
+        } catch (RuntimeException e) {
+            // WebView 未安装或正在更新，留给 Activity 创建 WebView 时处理
+            log.error("WebView provider warm-up failed: {}", e.getMessage());
+        } finally {
+            Trace.endSection();
+        }
+        Trace.beginSection("WW:warmUpAssets");
+        try {
+            assetLoader.warmUp(START_PAGE);
+            tracer.mark(StartupTrace.Phase.ASSETS_WARMED);
+        } finally {
+            Trace.endSection();
+        }
+        log.core("Startup warm-up finished in {} ms", SystemClock.uptimeMillis() - start);
+    }
+
+    /**
+     * 等待后台的 WebView 磁盘缓存整理完成，在主线程首次创建 WebView 前调用；已完成时立即返回。
+     */
+    void awaitWebCache() {
+        if (webCacheReady.getCount() == 0) return;
+        long start = SystemClock.uptimeMillis();
+        Trace.beginSection("WW:awaitWebCache");
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    webCacheReady.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            Trace.endSection();
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+        log.core("Waited {} ms for web cache preparation", SystemClock.uptimeMillis() - start);
+    }
+
+    /**
+     * 在创建 WebView 之前整理其磁盘缓存（HTTP 缓存与 V8 代码缓存）：内容版本（APK 或网页包）变化时清空，
+     * 否则按构建配置的字节预算与保留天数淘汰最旧条目，其余保留供本次热启动使用。每个进程整理一次，在 WarmUp 线程执行。
+     * 关闭保留（webCache.keep=false）时缓存在每次退出时清空，这里不做处理。
+     */
+    private void prepareWebCache() {
+        if (!BuildConfig.WEB_CACHE_KEEP) return;
+        long start = SystemClock.uptimeMillis();
+        File cacheDir = getCacheDir();
+        WebCacheBudget budget = new WebCacheBudget(
+                Arrays.asList(new File(cacheDir, "WebView"), new File(cacheDir, "org.chromium.android_webview")),
+                BuildConfig.WEB_CACHE_BUDGET_MB * 1024L * 1024, TimeUnit.DAYS.toMillis(BuildConfig.WEB_CACHE_MAX_AGE_DAYS));
+        SharedPreferences prefs = getSharedPreferences(WEB_CACHE_PREFS, MODE_PRIVATE);
+        String version = contentVersion();
+        if (!version.equals(prefs.getString("content_version", null))) {
+            budget.clear();
+            prefs.edit().putString("content_version", version).apply();
+            log.core("Content version is now {}, web cache cleared", version);
+        }
+        webCacheState = budget.trim(System.currentTimeMillis());
+        log.core("{} in {} ms", webCacheState, SystemClock.uptimeMillis() - start);
+    }
+
+    /**
+     * @return 当前网页内容的版本：APK 标识与已安装的网页包版本
+     */
+    private String contentVersion() {
+        String bundleVersion;
+        try {
+            bundleVersion = BundleStore.in(getFilesDir()).currentVersion(assetLoader.apkStamp());
+        } catch (IOException e) {
+            bundleVersion = null;
+        }
+        return assetLoader.apkStamp() + "/" + (bundleVersion != null ? bundleVersion : "apk");
+    }
+
+    /**
+     * 打开持久化日志文件，将此前运行（包括崩溃前）记录的日志恢复到日志面板，并让后续日志同步写入文件。
+     */
+    private void openJournal() {
+        LogJournal journal;
+        try {
+            journal = LogJournal.openShared(getFilesDir());
+        } catch (IOException e) {
+            log.error("Failed to open log journal: {}", e.getMessage());
+            return;
+        }
+        LogStore logStore = log.store();
+        List<LogStore.Entry> previous = journal.previousEntries();
+        if (!previous.isEmpty()) {
+            for (LogStore.Entry entry : previous) {
+                logStore.appendAt(entry.timeMillis, entry.level, entry.message);
+            }
+            logStore.append(LogStore.Level.CORE, "=== " + previous.size() + " entries restored from log journal ===");
+        }
+        log.setJournal(journal);
+    }
+
+    /**
+     * 全局异常捕获：异常写入日志与日志文件（保证崩溃现场在进程退出后仍可恢复），再交给系统默认处理。
+     */
+    private void installCrashHandler() {
+        final Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+            String stackTrace = Log.getStackTraceString(throwable);
+            log.error("Uncaught Exception: {}", stackTrace);
+            if (defaultHandler != null) {
+                defaultHandler.uncaughtException(thread, throwable);
+            }
+        });
+    }
+
+    /**
+     * 后台检查网页包更新（更新地址由构建属性 webBundle.updateUrl 配置，为空时不检查），每个进程只执行一次。
+     * 安装成功的新版本在下一次页面导航时生效。
+     */
+    void checkBundleUpdate() {
+        String updateUrl = BuildConfig.BUNDLE_UPDATE_URL;
+        if (updateUrl.isEmpty() || !bundleUpdateStarted.compareAndSet(false, true)) return;
+        new Thread(() -> {
+            try {
+                BundleUpdater.Result result = new BundleUpdater(BundleStore.in(getFilesDir()),
+                        new HttpBundleTransport(updateUrl), assetLoader.apkStamp(), log).update(assetLoader.updateBase(), assetLoader.bundlesInUse());
+                if (result != null) {
+                    assetLoader.stageBundle(result.bundle);
+                } else {
+                    log.core("Web bundle is up to date");
+                }
+            } catch (IOException e) {
+                log.error("Web bundle update failed: {}", e.getMessage());
+            }
+        }, "BundleUpdate").start();
+    }
+
+    AssetResourceLoader assetLoader() {
+        return assetLoader;
+    }
+
+    /**
+     * @return 本进程启动时 WebView 磁盘缓存是否保留了上次运行的条目
+     */
+    boolean isWebCacheWarm() {
+        return webCacheState != null && webCacheState.warm;
+    }
+
+    /**
+     * @return 进程内首个 Activity 取得从进程启动算起的时间线，之后的 Activity 取得新的时间线
+     */
+    StartupTracer startupTracer() {
+        StartupTracer tracer = launchTracer;
+        launchTracer = null;
+        return tracer != null ? tracer : new StartupTracer(this, log, isWebCacheWarm());
+    }
+
+    WebViewPool webViewPool() {
+        return webViewPool;
+    }
+
+    /**
+     * 根据系统内存压力等级收缩资源缓存与 WebView 池。
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        assetLoader.onTrimMemory(level);
+        log.info("onTrimMemory({}): {}", level, assetLoader.getCacheStats());
+        webViewPool.onTrimMemory(level);
+    }
+}
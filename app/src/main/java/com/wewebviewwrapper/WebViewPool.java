@@ -0,0 +1,159 @@
+package com.wewebviewwrapper;
+
+import android.app.Activity;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.view.ViewGroup;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebSettings;
+import android.webkit.WebView;
+import android.webkit.WebViewClient;
+
+import com.wewebviewwrapper.core.AppLog;
+import com.wewebviewwrapper.core.RequestMetrics;
+
+import java.util.ArrayDeque;
+
+/**
+ * 预先创建的 WebView 池，供主窗口与 window.open 打开的子窗口使用，省去每次创建 WebView 的开销。
+ * 池中的 WebView 以 MutableContextWrapper 包装应用上下文创建，取出时上下文切换为 Activity，
+ * 不持有 Activity。所有实例共享进程内的 {@link AssetResourceLoader} 与其缓存。
+ * 池中只有从未导航过的 WebView：WebViewTransport 要求新窗口的 WebView 没有任何导航记录，
+ * 而 clearHistory 会保留当前条目，因此关闭的窗口（子窗口与主窗口）一律销毁，不回到池中。只在主线程访问。
+ */
+final class WebViewPool {
+
+    private final Context appContext;
+    private final AppLog log;
+    private final AssetResourceLoader assetLoader;
+    private final int capacity;
+    private final Runnable beforeCreate;
+    private final ArrayDeque<WebView> idle = new ArrayDeque<>();
+    private boolean prefillScheduled;
+    private int created;
+    private int reused;
+
+    /**
+     * @param capacity 池中最多保留的空闲 WebView 数
+     * @param beforeCreate 每次创建 WebView 前在主线程调用，用于等待磁盘缓存整理完成
+     */
+    WebViewPool(Context context, AppLog log, AssetResourceLoader assetLoader, int capacity, Runnable beforeCreate) {
+        this.appContext = context.getApplicationContext();
+        this.log = log;
+        this.assetLoader = assetLoader;
+        this.capacity = capacity;
+        this.beforeCreate = beforeCreate;
+    }
+
+    /**
+     * 所有窗口共用的 WebView 设置。
+     */
+    static void configure(WebSettings settings) {
+        settings.setJavaScriptEnabled(true);
+        settings.setDomStorageEnabled(true);
+        // setDatabaseEnabled 已在 API 19 废弃，在现代 WebView 中无实际作用
+        settings.setAllowFileAccess(false);
+        settings.setAllowContentAccess(false);
+        settings.setAllowFileAccessFromFileURLs(false);
+        settings.setAllowUniversalAccessFromFileURLs(false);
+        settings.setJavaScriptCanOpenWindowsAutomatically(true);
+        settings.setSupportMultipleWindows(true);
+        settings.setMediaPlaybackRequiresUserGesture(false);
+        settings.setMixedContentMode(WebSettings.MIXED_CONTENT_NEVER_ALLOW);
+        // 设置缓存模式
+        settings.setCacheMode(WebSettings.LOAD_DEFAULT);
+    }
+
+    /**
+     * 取出一个 WebView 并将其上下文切换为 activity；池为空时新建。
+     * 返回的 WebView 已应用通用设置，并以共享的资源加载器拦截请求，调用方可再替换 WebViewClient。
+     */
+    WebView acquire(Activity activity) {
+        WebView webView = idle.pollFirst();
+        if (webView == null) {
+            webView = create();
+        } else {
+            reused++;
+        }
+        ((MutableContextWrapper) webView.getContext()).setBaseContext(activity);
+        return webView;
+    }
+
+    /**
+     * 关闭子窗口：从视图树移除后销毁。
+     */
+    void discard(WebView webView) {
+        if (webView.getParent() != null) {
+            ((ViewGroup) webView.getParent()).removeView(webView);
+        }
+        webView.setWebChromeClient(null);
+        webView.stopLoading();
+        webView.destroy();
+    }
+
+    /**
+     * 在主线程空闲时逐个创建 WebView，直到池中至少有 count 个空闲实例（不超过容量）。
+     */
+    void prefill(int count) {
+        if (prefillScheduled) return;
+        int target = Math.min(count, capacity);
+        if (idle.size() >= target) return;
+        prefillScheduled = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            long start = SystemClock.uptimeMillis();
+            Trace.beginSection("WW:prefillWebView");
+            idle.addLast(create());
+            Trace.endSection();
+            log.core("Pooled WebView created in {} ms ({} idle)", SystemClock.uptimeMillis() - start, idle.size());
+            // 每次空闲只创建一个，避免长时间占用主线程
+            boolean more = idle.size() < target;
+            prefillScheduled = more;
+            return more;
+        });
+    }
+
+    /**
+     * 按内存压力等级销毁空闲的 WebView：后台或内存偏低时最多保留 1 个，压力较大时全部销毁。
+     */
+    void onTrimMemory(int level) {
+        int keep;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            keep = 0;
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            keep = 1;
+        } else {
+            return;
+        }
+        while (idle.size() > keep) {
+            idle.pollLast().destroy();
+        }
+    }
+
+    String stats() {
+        return "WebViewPool: " + idle.size() + " idle, " + created + " created, " + reused + " reused";
+    }
+
+    private WebView create() {
+        beforeCreate.run();
+        WebView webView = new WebView(new MutableContextWrapper(appContext));
+        configure(webView.getSettings());
+        webView.setWebViewClient(new PooledClient());
+        created++;
+        return webView;
+    }
+
+    /**
+     * 池中 WebView 的默认客户端：以共享的资源加载器拦截请求。
+     */
+    private final class PooledClient extends WebViewClient {
+        @Override
+        public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+            return assetLoader.shouldIntercept(request, RequestMetrics.Source.PAGE);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 小资源内存缓存的命中与未命中路径；未命中时包含写入与按字节预算淘汰。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetCacheBenchmark {
+
+    private static final int HOT_KEYS = 64;
+    private static final int ENTRY_BYTES = 16 * 1024;
+
+    // 预算只容纳热点资源，未命中路径上的写入会持续触发淘汰
+    private final AssetCache cache = new AssetCache((long) HOT_KEYS * ENTRY_BYTES, 256 * 1024);
+    private final byte[] data = new byte[ENTRY_BYTES];
+    private String[] hotKeys;
+    private String[] coldKeys;
+
+    @Setup
+    public void setUp() {
+        hotKeys = new String[HOT_KEYS];
+        coldKeys = new String[1024];
+        for (int i = 0; i < HOT_KEYS; i++) {
+            hotKeys[i] = "dist/" + BenchmarkAssets.path(i);
+            cache.put(hotKeys[i], data);
+        }
+        for (int i = 0; i < coldKeys.length; i++) {
+            coldKeys[i] = "dist/" + BenchmarkAssets.path(HOT_KEYS + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int value;
+
+        int next(int mask) {
+            value = (value + 1) & mask;
+            return value;
+        }
+    }
+
+    @Benchmark
+    public byte[] hit(Cursor cursor) {
+        return cache.get(hotKeys[cursor.next(HOT_KEYS - 1)]);
+    }
+
+    @Benchmark
+    public byte[] missAndPut(Cursor cursor) {
+        String key = coldKeys[cursor.next(coldKeys.length - 1)];
+        byte[] cached = cache.get(key);
+        if (cached == null) {
+            cache.put(key, data);
+            return data;
+        }
+        return cached;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public byte[] hitContended(Cursor cursor) {
+        return cache.get(hotKeys[cursor.next(HOT_KEYS - 1)]);
+    }
+}
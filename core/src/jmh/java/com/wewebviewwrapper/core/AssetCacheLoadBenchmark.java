@@ -0,0 +1,140 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * 页面与 Service Worker 两个拦截线程并发请求同一批资源（PWA 首次安装时的预缓存）：
+ * coalesced 经 {@link AssetCache#load} 合并并发读取，independent 为各自读取后写入缓存。
+ * 两个线程按时间片请求同一资源：每进入新的时间片，两者几乎同时未命中一个新资源，之后命中缓存直到时间片结束。
+ * 缓存只容纳最近的少量资源，资源序列循环一周前早已被淘汰，因此每个时间片都对应一次“首次请求”。
+ * 比较两组的辅助计数器 reads：independent 每个资源约读取两次，coalesced 约一次。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetCacheLoadBenchmark {
+
+    private static final int ASSET_COUNT = 1024;
+    private static final int CACHED_ASSETS = 8;
+    private static final int ASSET_BYTES = 32 * 1024;
+    // 模拟一次读取中阻塞在存储上的时间；每个时间片约 1 ms，长于一次读取
+    private static final long READ_LATENCY_NANOS = 100_000;
+    private static final int SLICE_SHIFT = 20;
+
+    @State(Scope.Group)
+    public static class Shared {
+        AssetCache cache;
+        String[] keys;
+        byte[] source;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            cache = new AssetCache((long) CACHED_ASSETS * ASSET_BYTES, 256 * 1024);
+            keys = new String[ASSET_COUNT];
+            for (int i = 0; i < ASSET_COUNT; i++) {
+                keys[i] = "dist/" + BenchmarkAssets.path(i);
+            }
+            source = new byte[ASSET_BYTES];
+            Arrays.fill(source, (byte) 'x');
+        }
+
+        String currentKey() {
+            return keys[(int) (System.nanoTime() >>> SLICE_SHIFT) & (ASSET_COUNT - 1)];
+        }
+
+        /**
+         * 模拟从 AssetManager 读取一个压缩存储的资源：先阻塞等待存储，再复制并计算校验和代替解压开销。
+         */
+        byte[] read(Counters counters) {
+            counters.reads++;
+            LockSupport.parkNanos(READ_LATENCY_NANOS);
+            byte[] data = Arrays.copyOf(source, source.length);
+            CRC32 crc = new CRC32();
+            for (int pass = 0; pass < 4; pass++) {
+                crc.update(data, 0, data.length);
+            }
+            data[0] = (byte) crc.getValue();
+            return data;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long reads;
+        public long requests;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            reads = 0;
+            requests = 0;
+        }
+    }
+
+    private static byte[] coalesced(Shared shared, Counters counters) throws IOException {
+        counters.requests++;
+        String key = shared.currentKey();
+        byte[] data = shared.cache.get(key);
+        return data != null ? data : shared.cache.load(key, () -> shared.read(counters));
+    }
+
+    private static byte[] independent(Shared shared, Counters counters) {
+        counters.requests++;
+        String key = shared.currentKey();
+        byte[] data = shared.cache.get(key);
+        if (data == null) {
+            data = shared.read(counters);
+            shared.cache.put(key, data);
+        }
+        return data;
+    }
+
+    @Benchmark
+    @Group("coalesced")
+    @GroupThreads(1)
+    public byte[] coalescedPage(Shared shared, Counters counters) throws IOException {
+        return coalesced(shared, counters);
+    }
+
+    @Benchmark
+    @Group("coalesced")
+    @GroupThreads(1)
+    public byte[] coalescedServiceWorker(Shared shared, Counters counters) throws IOException {
+        return coalesced(shared, counters);
+    }
+
+    @Benchmark
+    @Group("independent")
+    @GroupThreads(1)
+    public byte[] independentPage(Shared shared, Counters counters) {
+        return independent(shared, counters);
+    }
+
+    @Benchmark
+    @Group("independent")
+    @GroupThreads(1)
+    public byte[] independentServiceWorker(Shared shared, Counters counters) {
+        return independent(shared, counters);
+    }
+}
@@ -0,0 +1,144 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 单个资源的打开与完整读取：packed 为内存映射资源包上的切片，zipped 为从 zip 中查找条目并解压，
+ * 后者与 AssetManager.open 读取 APK 中压缩存储的资源开销相当。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetPackBenchmark {
+
+    private static final int ASSET_COUNT = 512;
+    private static final int ASSET_BYTES = 8 * 1024;
+
+    private File packFile;
+    private File zipFile;
+    private AssetPack pack;
+    private ZipFile zip;
+    private String[] paths;
+    private final byte[] buffer = new byte[16 * 1024];
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        paths = new String[ASSET_COUNT];
+        byte[][] contents = new byte[ASSET_COUNT][];
+        for (int i = 0; i < ASSET_COUNT; i++) {
+            paths[i] = "dist/" + BenchmarkAssets.path(i);
+            contents[i] = content(i);
+        }
+        String[] sorted = paths.clone();
+        Arrays.sort(sorted);
+
+        packFile = File.createTempFile("bench", ".pack");
+        try (FileOutputStream out = new FileOutputStream(packFile)) {
+            out.write(packBytes(sorted, contents));
+        }
+        try (FileChannel channel = FileChannel.open(packFile.toPath(), StandardOpenOption.READ)) {
+            pack = AssetPack.map(channel, 0, channel.size());
+        }
+
+        zipFile = File.createTempFile("bench", ".zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+            for (int i = 0; i < ASSET_COUNT; i++) {
+                out.putNextEntry(new ZipEntry("assets/" + paths[i]));
+                out.write(contents[i]);
+                out.closeEntry();
+            }
+        }
+        zip = new ZipFile(zipFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        zip.close();
+        packFile.delete();
+        zipFile.delete();
+    }
+
+    /**
+     * 类似压缩前的 JS 文本：可压缩但不是单一重复字节。
+     */
+    private static byte[] content(int i) {
+        StringBuilder sb = new StringBuilder(ASSET_BYTES);
+        while (sb.length() < ASSET_BYTES) {
+            sb.append("export function f").append(i).append('_').append(sb.length()).append("(a){return a*").append(i).append(";}\n");
+        }
+        return sb.substring(0, ASSET_BYTES).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] packBytes(String[] sorted, byte[][] contents) throws IOException {
+        long headerSize = 12;
+        for (String path : sorted) headerSize += 2 + path.getBytes(StandardCharsets.UTF_8).length + 8;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(AssetPack.MAGIC);
+        out.writeInt(AssetPack.VERSION);
+        out.writeInt(sorted.length);
+        long offset = headerSize;
+        for (String path : sorted) {
+            byte[] name = path.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(name.length);
+            out.write(name);
+            out.writeInt((int) offset);
+            out.writeInt(ASSET_BYTES);
+            offset += ASSET_BYTES;
+        }
+        for (String path : sorted) {
+            out.write(contents[Arrays.asList(paths).indexOf(path)]);
+        }
+        return bytes.toByteArray();
+    }
+
+    private long drain(InputStream in) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) total += n;
+        in.close();
+        return total;
+    }
+
+    @Benchmark
+    public long packed() throws IOException {
+        cursor = (cursor + 1) & (ASSET_COUNT - 1);
+        return drain(pack.open(paths[cursor]));
+    }
+
+    @Benchmark
+    public long zipped() throws IOException {
+        cursor = (cursor + 1) & (ASSET_COUNT - 1);
+        return drain(zip.getInputStream(zip.getEntry("assets/" + paths[cursor])));
+    }
+}
@@ -0,0 +1,89 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL 到资源的解析：主机判定、路径规范化、索引查找与响应头，即 shouldIntercept 中与 IO 无关的部分。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssetResolverBenchmark {
+
+    private static final int ASSET_COUNT = 512;
+
+    private final AssetResolver resolver = new AssetResolver("localhost", "dist");
+    private AssetIndex index;
+    private String[] hitPaths;
+    private String[] missPaths;
+    private String[] encodedPaths;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        index = BenchmarkAssets.index(ASSET_COUNT);
+        hitPaths = new String[ASSET_COUNT];
+        missPaths = new String[ASSET_COUNT];
+        encodedPaths = new String[ASSET_COUNT];
+        for (int i = 0; i < ASSET_COUNT; i++) {
+            hitPaths[i] = "https://localhost/" + BenchmarkAssets.path(i) + "?v=1";
+            missPaths[i] = "https://localhost/assets/missing-" + i + ".js";
+            // 需要走慢路径规范化的 URL：一半含 "./" 段与百分号编码，一半为应被拒绝的越界路径
+            encodedPaths[i] = (i & 1) == 0
+                    ? "https://localhost/./" + BenchmarkAssets.path(i).replace("/", "%2F")
+                    : "https://localhost/assets/%2e%2e/../" + BenchmarkAssets.path(i);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (ASSET_COUNT - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public boolean handles() {
+        return resolver.handles(hitPaths[next()]);
+    }
+
+    @Benchmark
+    public AssetIndex.Entry resolveHit() {
+        return resolver.lookup(index, hitPaths[next()]);
+    }
+
+    @Benchmark
+    public AssetIndex.Entry resolveMiss() {
+        return resolver.lookup(index, missPaths[next()]);
+    }
+
+    @Benchmark
+    public AssetIndex.Entry resolveNonCanonical() {
+        return resolver.lookup(index, encodedPaths[next()]);
+    }
+
+    @Benchmark
+    public Map<String, String> cacheHeaders() {
+        int i = next();
+        String path = BenchmarkAssets.path(i);
+        return CachePolicy.headers(path, index.get(path), "Thu, 01 Jan 2026 00:00:00 GMT");
+    }
+
+    @Benchmark
+    public Map<String, String> cachedFullHeaders() {
+        return AssetResponse.full(null, index.get(BenchmarkAssets.path(next())), "Thu, 01 Jan 2026 00:00:00 GMT").headers;
+    }
+}
@@ -0,0 +1,42 @@
+package com.wewebviewwrapper.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试共用的合成资源集：模拟一个典型的 Vite 构建产物（带哈希的 JS/CSS、图片、字体）。
+ */
+final class BenchmarkAssets {
+
+    static final String[] EXTENSIONS = {"js", "css", "png", "woff2", "svg", "json", "webp", "wasm"};
+
+    private BenchmarkAssets() {
+    }
+
+    /**
+     * @return 与 generateAssetIndex 任务输出格式一致的索引，共 count 个资源
+     */
+    static AssetIndex index(int count) {
+        StringBuilder sb = new StringBuilder("# wewebview-asset-index v1\n");
+        sb.append("index.html\t2048\ttext/html\t0123456789abcdef0123456789abcdef\t1\n");
+        for (int i = 0; i < count; i++) {
+            String ext = EXTENSIONS[i % EXTENSIONS.length];
+            sb.append(path(i)).append('\t').append(1024 + i * 37).append('\t')
+                    .append(MimeTypes.forPath(path(i))).append('\t').append(String.format("%032x", i))
+                    .append('\t').append(ext.equals("png") || ext.equals("woff2") || ext.equals("webp") ? '0' : '1').append('\n');
+        }
+        try {
+            return AssetIndex.load(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), "dist");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return 第 i 个资源相对于资源根目录的路径
+     */
+    static String path(int i) {
+        return "assets/chunk-" + i + "-" + Integer.toHexString(0x3f9c2e1d + i) + "." + EXTENSIONS[i % EXTENSIONS.length];
+    }
+}
@@ -0,0 +1,89 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文档提供器列出一个目录的开销：legacy 为 File.listFiles 后逐个调用 isDirectory / canWrite / length /
+ * lastModified（每个子项 5 次系统调用），attributes 为 DirectoryStream 加每个子项一次 {@link FileEntry#read}，
+ * namesOnly 为投影只需 ID 与名称时只读目录项、不访问子项本身。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectoryListingBenchmark {
+
+    private static final int FILE_COUNT = 5000;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("listing-bench");
+        for (int i = 0; i < FILE_COUNT; i++) {
+            Path file = dir.resolve(BenchmarkAssets.path(i).replace('/', '_'));
+            if (i % 50 == 0) {
+                Files.createDirectory(file);
+            } else {
+                Files.write(file, new byte[i % 512]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BundleStore.deleteRecursively(dir.toFile());
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        File[] files = dir.toFile().listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            boolean directory = file.isDirectory();
+            bh.consume(directory || file.canWrite());
+            bh.consume(file.getName());
+            bh.consume(file.length());
+            bh.consume(file.lastModified());
+        }
+    }
+
+    @Benchmark
+    public void attributes(Blackhole bh) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                bh.consume(FileEntry.read(child));
+            }
+        }
+    }
+
+    @Benchmark
+    public void namesOnly(Blackhole bh) throws IOException {
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                bh.consume(child.getFileName().toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志写入与格式化：详细日志关闭时的调用开销、写入环形存储、写入内存映射日志文件，以及导出时的逐行格式化。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogBenchmark {
+
+    private final LogStore store = new LogStore(4096);
+    private final AppLog disabledLog = new AppLog(store);
+    private final AppLog enabledLog = new AppLog(store);
+    private final AppLog journaledLog = new AppLog(new LogStore(4096));
+    private final StringBuilder sb = new StringBuilder(256);
+    private LogStore.Entry entry;
+    private LogJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        enabledLog.setDetailedEnabled(true);
+        journaledLog.setDetailedEnabled(true);
+        File dir = Files.createTempDirectory("journal-bench").toFile();
+        journal = LogJournal.openShared(dir);
+        journaledLog.setJournal(journal);
+        entry = new LogStore.Entry(1, System.currentTimeMillis(), LogStore.Level.INFO,
+                "Intercepting URL: https://localhost/assets/index-BfK3a9xZ.js");
+    }
+
+    @Benchmark
+    public void logDisabled() {
+        disabledLog.info("Intercepting URL: {}", "https://localhost/assets/index-BfK3a9xZ.js");
+    }
+
+    @Benchmark
+    public void logEnabled() {
+        enabledLog.info("Intercepting URL: {}", "https://localhost/assets/index-BfK3a9xZ.js");
+    }
+
+    @Benchmark
+    public void logJournaled() {
+        journaledLog.info("Intercepting URL: {}", "https://localhost/assets/index-BfK3a9xZ.js");
+    }
+
+    @Benchmark
+    public String formatPattern() {
+        return LogFormat.format("onTrimMemory({}): {}", 40, "entries=12 bytes=480KB", null, 2);
+    }
+
+    @Benchmark
+    public int formatEntry() {
+        sb.setLength(0);
+        LogFormat.appendEntry(sb, entry);
+        return sb.length();
+    }
+}
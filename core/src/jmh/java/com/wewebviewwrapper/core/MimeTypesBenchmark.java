@@ -0,0 +1,51 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按扩展名推断 MIME 类型，覆盖常见扩展名、大写扩展名与未知扩展名。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MimeTypesBenchmark {
+
+    private static final String[] PATHS = {
+            "dist/index.html", "dist/assets/index-BfK3a9xZ.js", "dist/assets/index-C8d2kLmQ.css",
+            "dist/icons/logo-512.png", "dist/fonts/inter-var.woff2", "dist/photo.JPG",
+            "dist/data/config.json", "dist/blob.bin"
+    };
+
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        cursor = 0;
+    }
+
+    @Benchmark
+    public String forPath() {
+        cursor = (cursor + 1) & (PATHS.length - 1);
+        return MimeTypes.forPath(PATHS[cursor]);
+    }
+
+    @Benchmark
+    public RequestMetrics.MimeClass mimeClass() {
+        cursor = (cursor + 1) & (PATHS.length - 1);
+        return RequestMetrics.MimeClass.of(MimeTypes.forPath(PATHS[cursor]));
+    }
+}
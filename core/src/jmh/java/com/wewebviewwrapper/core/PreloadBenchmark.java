@@ -0,0 +1,109 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 一次冷启动导航从请求 index.html 到其关键子资源全部返回的时间（首次渲染的下限）。
+ * WebView 读取 HTML、解析后才逐个请求 JS / CSS：sequential 为原有流程，每个子资源在请求时才读取；
+ * preloaded 在导航请求时经 {@link AssetPreloader} 于 2 个后台线程预读，子资源请求命中缓存或合并到进行中的读取。
+ * 每次调用使用新的空缓存，读取以 parkNanos 模拟阻塞在存储上的时间。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreloadBenchmark {
+
+    // 模拟一次 AssetManager 读取（定位、解压）与 WebView 解析 HTML 的耗时
+    private static final long READ_LATENCY_NANOS = 200_000;
+    private static final long PARSE_NANOS = 300_000;
+    private static final int CRITICAL_RESOURCES = 6;
+
+    private AssetIndex index;
+    private PreloadGraph graph;
+    private String[] critical;
+    private ExecutorService executor;
+    private final AppLog log = new AppLog(new LogStore(64));
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        index = BenchmarkAssets.index(256);
+        // 前 CRITICAL_RESOURCES 个 JS / CSS 资源作为 index.html 的关键子资源
+        critical = new String[CRITICAL_RESOURCES];
+        StringBuilder sb = new StringBuilder(PreloadGraph.HEADER).append("\nindex.html");
+        for (int i = 0, n = 0; n < CRITICAL_RESOURCES; i++) {
+            String path = BenchmarkAssets.path(i);
+            if (path.endsWith(".js") || path.endsWith(".css")) {
+                critical[n++] = path;
+                sb.append('\t').append(path);
+            }
+        }
+        graph = PreloadGraph.load(new ByteArrayInputStream(sb.append('\n').toString().getBytes(StandardCharsets.UTF_8)));
+        executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "AssetPreload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static byte[] read(AssetIndex.Entry entry) {
+        LockSupport.parkNanos(READ_LATENCY_NANOS);
+        return new byte[(int) entry.size];
+    }
+
+    private long navigate(boolean preload) throws IOException {
+        AssetCache cache = new AssetCache(8L * 1024 * 1024, 256 * 1024);
+        if (preload) {
+            new AssetPreloader(cache, executor, log)
+                    .preload(index, graph, "index.html", (entry, key, size) -> read(entry));
+        }
+        AssetIndex.Entry page = index.get("index.html");
+        long bytes = cache.load(page.assetPath, () -> read(page)).length;
+        LockSupport.parkNanos(PARSE_NANOS);
+        for (String path : critical) {
+            AssetIndex.Entry entry = index.get(path);
+            byte[] data = cache.get(entry.assetPath);
+            if (data == null) {
+                data = cache.load(entry.assetPath, () -> read(entry));
+            }
+            bytes += data.length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long sequential() throws IOException {
+        return navigate(false);
+    }
+
+    @Benchmark
+    public long preloaded() throws IOException {
+        return navigate(true);
+    }
+}
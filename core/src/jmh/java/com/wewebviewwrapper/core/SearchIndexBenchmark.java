@@ -0,0 +1,103 @@
+package com.wewebviewwrapper.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文档提供器搜索索引在 200 个目录、共 100000 个文件上的开销：build 为无索引文件时完整遍历并写入，
+ * reopen 为下次启动时加载索引文件并逐个比较目录修改时间（文件系统无变化）；
+ * 其余为查询延迟：prefix 与 substring 各取前 50 项，substringMiss 为无匹配时扫描全部名称，mimeOnly 只按 MIME 类型筛选。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    private static final int DIR_COUNT = 200;
+    private static final int FILES_PER_DIR = 500;
+    private static final String[] IMAGE_TYPES = {"image/*"};
+
+    private Path root;
+    private File indexFile;
+    private SearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("search-bench");
+        for (int d = 0; d < DIR_COUNT; d++) {
+            Path dir = Files.createDirectory(root.resolve("dir-" + d));
+            for (int i = 0; i < FILES_PER_DIR; i++) {
+                Files.createFile(dir.resolve(BenchmarkAssets.path(d * FILES_PER_DIR + i).substring("assets/".length())));
+            }
+        }
+        indexFile = Files.createTempDirectory("search-bench-index").resolve(SearchIndex.FILE_NAME).toFile();
+        index = open();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BundleStore.deleteRecursively(root.toFile());
+        BundleStore.deleteRecursively(indexFile.getParentFile());
+    }
+
+    /**
+     * 在调用线程上同步加载或构建。
+     */
+    private SearchIndex open() {
+        SearchIndex opened = new SearchIndex(root, indexFile, null, MimeTypes::forPath, Runnable::run, null);
+        opened.refresh(0);
+        if (!opened.isReady()) throw new IllegalStateException("Search index not built");
+        return opened;
+    }
+
+    @Benchmark
+    public SearchIndex build() {
+        if (!indexFile.delete()) throw new IllegalStateException("No index file to delete");
+        return open();
+    }
+
+    @Benchmark
+    public SearchIndex reopen() {
+        return open();
+    }
+
+    @Benchmark
+    public void prefix(Blackhole bh) {
+        bh.consume(index.search("chunk-4242", null, 50));
+    }
+
+    @Benchmark
+    public void substring(Blackhole bh) {
+        bh.consume(index.search("3f9d", null, 50));
+    }
+
+    @Benchmark
+    public void substringMiss(Blackhole bh) {
+        bh.consume(index.search("no-such-name", null, 50));
+    }
+
+    @Benchmark
+    public void mimeOnly(Blackhole bh) {
+        bh.consume(index.search("", IMAGE_TYPES, 50));
+    }
+}
@@ -0,0 +1,120 @@
+package com.wewebviewwrapper.core;
+
+import java.util.function.Supplier;
+
+/**
+ * 应用日志门面。先判断级别再格式化：CORE / INFO 仅在详细日志模式下记录，ERROR 始终记录。
+ * 支持 {} 占位符与 Supplier 两种延迟构造方式，日志关闭时调用方不产生字符串拼接与格式化开销。
+ * 占位符重载按参数个数固定（最多 3 个），避免可变参数数组分配。
+ */
+public final class AppLog {
+
+    /**
+     * 日志输出目标（logcat、调试面板刷新等），在写入存储后调用。
+     */
+    public interface Sink {
+        void onLog(LogStore.Level level, String message);
+    }
+
+    private final LogStore store;
+    private volatile boolean detailedEnabled;
+    private volatile Sink sink;
+    private volatile LogJournal journal;
+
+    public AppLog(LogStore store) {
+        this.store = store;
+    }
+
+    public LogStore store() {
+        return store;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * 设置持久化日志文件，写入存储的每条日志同时追加到文件，进程崩溃后可在下次启动时恢复。
+     */
+    public void setJournal(LogJournal journal) {
+        this.journal = journal;
+    }
+
+    public void setDetailedEnabled(boolean enabled) {
+        this.detailedEnabled = enabled;
+    }
+
+    public boolean isDetailedEnabled() {
+        return detailedEnabled;
+    }
+
+    public boolean isEnabled(LogStore.Level level) {
+        return level == LogStore.Level.ERROR || detailedEnabled;
+    }
+
+    // ---- CORE：核心流程日志 ----
+
+    public void core(String message) {
+        if (detailedEnabled) write(LogStore.Level.CORE, message);
+    }
+
+    public void core(String pattern, Object arg) {
+        if (detailedEnabled) write(LogStore.Level.CORE, LogFormat.format(pattern, arg, null, null, 1));
+    }
+
+    public void core(String pattern, Object arg1, Object arg2) {
+        if (detailedEnabled) write(LogStore.Level.CORE, LogFormat.format(pattern, arg1, arg2, null, 2));
+    }
+
+    public void core(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (detailedEnabled) write(LogStore.Level.CORE, LogFormat.format(pattern, arg1, arg2, arg3, 3));
+    }
+
+    // ---- INFO：冗余日志 ----
+
+    public void info(String message) {
+        if (detailedEnabled) write(LogStore.Level.INFO, message);
+    }
+
+    public void info(String pattern, Object arg) {
+        if (detailedEnabled) write(LogStore.Level.INFO, LogFormat.format(pattern, arg, null, null, 1));
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        if (detailedEnabled) write(LogStore.Level.INFO, LogFormat.format(pattern, arg1, arg2, null, 2));
+    }
+
+    public void info(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (detailedEnabled) write(LogStore.Level.INFO, LogFormat.format(pattern, arg1, arg2, arg3, 3));
+    }
+
+    public void info(Supplier<String> message) {
+        if (detailedEnabled) write(LogStore.Level.INFO, message.get());
+    }
+
+    // ---- ERROR：始终记录 ----
+
+    public void error(String message) {
+        write(LogStore.Level.ERROR, message);
+    }
+
+    public void error(String pattern, Object arg) {
+        write(LogStore.Level.ERROR, LogFormat.format(pattern, arg, null, null, 1));
+    }
+
+    public void error(String pattern, Object arg1, Object arg2) {
+        write(LogStore.Level.ERROR, LogFormat.format(pattern, arg1, arg2, null, 2));
+    }
+
+    public void error(String pattern, Object arg1, Object arg2, Object arg3) {
+        write(LogStore.Level.ERROR, LogFormat.format(pattern, arg1, arg2, arg3, 3));
+    }
+
+    private void write(LogStore.Level level, String message) {
+        LogStore.Entry entry = store.append(level, message);
+        LogJournal j = journal;
+        if (j != null) j.append(entry.timeMillis, level, message);
+        Sink s = sink;
+        if (s != null) s.onLog(level, message);
+    }
+}
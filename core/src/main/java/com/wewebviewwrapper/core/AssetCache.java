@@ -0,0 +1,176 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按字节预算淘汰的 LRU 资源缓存，键为 asset 路径，值为只读共享的字节数组。
+ * 命中时调用方应为每次响应创建新的 ByteArrayInputStream 视图，不得修改数组内容。
+ * 所有方法线程安全，可同时被页面与 Service Worker 的拦截线程调用。
+ * 未命中时经 {@link #load} 合并并发读取：同一 key 同时只有一个线程读取，其余线程等待并共享同一字节数组。
+ */
+public final class AssetCache {
+
+    /**
+     * 未命中时读取完整资源内容，例如从 AssetManager 读取。
+     */
+    public interface Loader {
+        byte[] load() throws IOException;
+    }
+
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<String, FutureTask<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private long budgetBytes;
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * @param maxBytes 缓存总字节预算上限
+     * @param maxEntryBytes 单个资源可缓存的最大字节数，超出者不进入缓存
+     */
+    public AssetCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.budgetBytes = maxBytes;
+    }
+
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * @return 缓存的字节数组，未命中时返回 null
+     */
+    public byte[] get(String key) {
+        byte[] data;
+        synchronized (this) {
+            data = entries.get(key);
+        }
+        (data != null ? hits : misses).incrementAndGet();
+        return data;
+    }
+
+    public void put(String key, byte[] data) {
+        if (data.length > maxEntryBytes) return;
+        synchronized (this) {
+            if (data.length > budgetBytes) return;
+            byte[] previous = entries.put(key, data);
+            if (previous != null) currentBytes -= previous.length;
+            currentBytes += data.length;
+            trimTo(budgetBytes);
+        }
+    }
+
+    /**
+     * 单次读取（single-flight）：同一 key 已有读取在进行时等待其结果，否则由当前线程读取并放入缓存。
+     * 页面与 Service Worker 同时请求同一资源（如 PWA 首次安装时的预缓存）只会读取一次。
+     * 读取失败时所有等待者收到同一异常，之后的请求会重新读取。
+     * @return 资源内容；超出单项上限或缓存预算时不会留在缓存中，但仍由本次并发请求共享
+     */
+    public byte[] load(String key, Loader loader) throws IOException {
+        FutureTask<byte[]> task = new FutureTask<>(() -> {
+            // 上一次读取可能恰好在 get 未命中之后完成
+            byte[] data;
+            synchronized (this) {
+                data = entries.get(key);
+            }
+            if (data == null) {
+                loads.incrementAndGet();
+                data = loader.load();
+                put(key, data);
+            }
+            return data;
+        });
+        FutureTask<byte[]> existing = inFlight.putIfAbsent(key, task);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+        try {
+            task.run();
+        } finally {
+            inFlight.remove(key, task);
+        }
+        return await(task);
+    }
+
+    private static byte[] await(FutureTask<byte[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for asset load");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 按比例收缩缓存预算并立即淘汰超出部分，fraction 为 0 时清空缓存。
+     * 之后调用 {@link #restore()} 可恢复到初始预算。
+     */
+    public synchronized void shrink(float fraction) {
+        budgetBytes = (long) (maxBytes * Math.max(0f, Math.min(1f, fraction)));
+        trimTo(budgetBytes);
+    }
+
+    public synchronized void restore() {
+        budgetBytes = maxBytes;
+    }
+
+    private void trimTo(long limit) {
+        Iterator<Map.Entry<String, byte[]>> it = entries.entrySet().iterator();
+        while (currentBytes > limit && it.hasNext()) {
+            currentBytes -= it.next().getValue().length;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return 命中率（0~1），尚无请求时为 0
+     */
+    public double hitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * @return 实际执行的读取次数（不含合并到进行中读取的请求）
+     */
+    public long loadCount() {
+        return loads.get();
+    }
+
+    /**
+     * @return 合并到进行中读取、未单独读取的请求数
+     */
+    public long coalescedCount() {
+        return coalesced.get();
+    }
+
+    public synchronized String stats() {
+        return String.format(java.util.Locale.US, "AssetCache: %d entries, %d/%d KB, hit rate %.1f%% (%d hits, %d misses, %d evictions), %d loads, %d coalesced",
+                entries.size(), currentBytes / 1024, budgetBytes / 1024, hitRate() * 100, hits.get(), misses.get(), evictions.get(),
+                loads.get(), coalesced.get());
+    }
+}
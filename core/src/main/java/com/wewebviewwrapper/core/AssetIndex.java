@@ -0,0 +1,164 @@
+package com.wewebviewwrapper.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 构建期生成的 assets 资源索引（见 app/web-assets.gradle 中的 generateAssetIndex 任务）。
+ * 加载后可在内存中判定资源是否存在，未命中的路径无需再访问 AssetManager。
+ * 条目存放在开放寻址哈希表中，可直接以 URL 字符串的某个区间查找，无需先截取子串。
+ */
+public final class AssetIndex {
+
+    static final String HEADER = "# wewebview-asset-index v1";
+
+    private static final int HASHED_SUFFIX = 16;
+
+    /**
+     * 单个资源条目，路径相对于资源根目录（如 dist）。
+     */
+    public static final class Entry {
+        public final String path;
+        /** 传给 AssetManager 的完整路径（含资源根目录），加载索引时预先拼接。 */
+        public final String assetPath;
+        public final long size;
+        public final String mimeType;
+        public final String hash;
+        public final boolean compressed;
+
+        // 完整（非 Range）响应的响应头，首次使用时生成，之后所有响应共享同一不可变 Map
+        private volatile Map<String, String> fullHeaders;
+
+        Entry(String assetPrefix, String path, long size, String mimeType, String hash, boolean compressed) {
+            this.path = path;
+            this.assetPath = assetPrefix + path;
+            this.size = size;
+            this.mimeType = mimeType;
+            this.hash = hash;
+            this.compressed = compressed;
+        }
+
+        /**
+         * 完整响应的响应头：缓存相关头、Accept-Ranges 与 Content-Length。
+         * @param lastModified 已格式化的 Last-Modified，进程内不变
+         */
+        Map<String, String> fullResponseHeaders(String lastModified) {
+            Map<String, String> headers = fullHeaders;
+            if (headers == null) {
+                Map<String, String> built = CachePolicy.headers(path, this, lastModified);
+                built.put("Accept-Ranges", "bytes");
+                built.put("Content-Length", String.valueOf(size));
+                headers = Collections.unmodifiableMap(built);
+                fullHeaders = headers;
+            }
+            return headers;
+        }
+    }
+
+    private final String[] keys;
+    private final Entry[] values;
+    private final int mask;
+    private final int size;
+
+    private AssetIndex(List<Entry> entries) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size() * 2 - 1)) << 1;
+        this.keys = new String[capacity];
+        this.values = new Entry[capacity];
+        this.mask = capacity - 1;
+        int count = 0;
+        for (Entry entry : entries) {
+            int slot = hash(entry.path, 0, entry.path.length()) & mask;
+            while (keys[slot] != null && !keys[slot].equals(entry.path)) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) count++;
+            keys[slot] = entry.path;
+            values[slot] = entry;
+        }
+        this.size = count;
+    }
+
+    /**
+     * 从索引文件流中解析条目，调用方负责关闭流。
+     * @param assetBase assets 中的资源根目录（如 dist），用于预先拼接各条目的 assetPath
+     */
+    public static AssetIndex load(InputStream in, String assetBase) throws IOException {
+        String assetPrefix = assetBase.isEmpty() ? "" : assetBase + "/";
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 16 * 1024);
+        String line = reader.readLine();
+        if (!HEADER.equals(line)) {
+            throw new IOException("Unsupported asset index header: " + line);
+        }
+        List<Entry> entries = new ArrayList<>();
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 5) {
+                throw new IOException("Malformed asset index line: " + line);
+            }
+            try {
+                entries.add(new Entry(assetPrefix, fields[0], Long.parseLong(fields[1]), fields[2], fields[3],
+                        "1".equals(fields[4])));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed asset index line: " + line, e);
+            }
+        }
+        return new AssetIndex(entries);
+    }
+
+    /**
+     * @param path 相对于资源根目录的路径，不带前导斜杠
+     * @return 对应条目，不存在时返回 null
+     */
+    public Entry get(String path) {
+        return get(path, 0, path.length());
+    }
+
+    /**
+     * 以 s 的 [start, end) 区间作为路径查找，不创建子串。
+     */
+    public Entry get(String s, int start, int end) {
+        int length = end - start;
+        int slot = hash(s, start, end) & mask;
+        while (true) {
+            String key = keys[slot];
+            if (key == null) return null;
+            if (key.length() == length && key.regionMatches(0, s, start, length)) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return 全部条目（顺序不定），用于网页包更新时逐个比对
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (Entry entry : values) {
+            if (entry != null) entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * 只对长度与末尾 HASHED_SUFFIX 个字符取哈希：构建产物的文件名在末尾带内容哈希与扩展名，
+     * 区分度足够，长路径不必逐字符计算；偶发的冲突由线性探测与 regionMatches 处理。
+     */
+    private static int hash(String s, int start, int end) {
+        int h = end - start;
+        for (int i = Math.max(start, end - HASHED_SUFFIX); i < end; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,136 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 构建期生成的资源包（见 app/web-assets.gradle 中的 packWebAssets 任务）：所有资源
+ * 顺序拼接为一个以 stored 方式打包的文件，文件头为按路径排序的偏移表。
+ * 运行时只需 openFd 并内存映射一次，之后每个资源都是映射区上的零拷贝切片，不再逐个打开 zip 条目与 inflater。
+ * <p>
+ * 格式（大端）：magic "WWPK"、版本号、条目数，随后每个条目为路径长度 (u16)、UTF-8 路径、偏移 (u32)、长度 (u32)，
+ * 偏移相对于包文件开头。路径为 AssetManager 中的完整路径（如 dist/assets/index.js）。
+ */
+public final class AssetPack {
+
+    static final int MAGIC = 0x5757504B;
+    static final int VERSION = 1;
+
+    private final ByteBuffer buffer;
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] lengths;
+
+    private AssetPack(ByteBuffer buffer, String[] names, int[] offsets, int[] lengths) {
+        this.buffer = buffer;
+        this.names = names;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    /**
+     * 以只读方式映射 channel 的 [position, position + size) 区间并解析偏移表，映射建立后 channel 可以关闭。
+     */
+    public static AssetPack map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Asset pack too large to map: " + size);
+        }
+        return wrap(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    /**
+     * 解析已载入内存（或已映射）的资源包。
+     */
+    public static AssetPack wrap(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        try {
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an asset pack");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported asset pack version: " + version);
+            }
+            int count = header.getInt();
+            if (count < 0) {
+                throw new IOException("Malformed asset pack header");
+            }
+            String[] names = new String[count];
+            int[] offsets = new int[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[header.getShort() & 0xFFFF];
+                header.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                offsets[i] = header.getInt();
+                lengths[i] = header.getInt();
+                if (offsets[i] < 0 || lengths[i] < 0 || (long) offsets[i] + lengths[i] > buffer.capacity()) {
+                    throw new IOException("Asset pack entry out of bounds: " + names[i]);
+                }
+                if (i > 0 && names[i - 1].compareTo(names[i]) >= 0) {
+                    throw new IOException("Asset pack index not sorted at: " + names[i]);
+                }
+            }
+            return new AssetPack(buffer, names, offsets, lengths);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated asset pack header", e);
+        }
+    }
+
+    /**
+     * @param assetPath AssetManager 中的完整路径
+     * @return 该资源内容的只读切片，不存在时返回 null
+     */
+    public ByteBuffer slice(String assetPath) {
+        int i = indexOf(assetPath);
+        if (i < 0) return null;
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offsets[i] + lengths[i]).position(offsets[i]);
+        return slice.slice();
+    }
+
+    /**
+     * @return 读取该资源的流（直接读取映射区，不复制），不存在时返回 null
+     */
+    public InputStream open(String assetPath) {
+        ByteBuffer slice = slice(assetPath);
+        return slice != null ? new ByteBufferInputStream(slice) : null;
+    }
+
+    /**
+     * @return 资源长度，不存在时为 -1
+     */
+    public long length(String assetPath) {
+        int i = indexOf(assetPath);
+        return i < 0 ? -1 : lengths[i];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public long byteSize() {
+        return buffer.capacity();
+    }
+
+    private int indexOf(String assetPath) {
+        int low = 0;
+        int high = names.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = names[mid].compareTo(assetPath);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,77 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 主框架导航时的关键子资源预读：按 {@link PreloadGraph} 在后台线程池中将页面随后请求的 JS / CSS 读入 {@link AssetCache}。
+ * WebView 解析完 HTML 后发出的子资源请求直接命中缓存，或经 single-flight 合并到仍在进行的预读，
+ * 原本在 HTML 解析之后逐个串行的读取与 HTML 本身的读取、解析重叠进行。
+ * 超出缓存单项上限的资源不预读（响应时仍以流方式读取）。
+ */
+public final class AssetPreloader {
+
+    /**
+     * 读取单个资源的完整内容。
+     */
+    public interface Reader {
+        /**
+         * @param entry 资源条目
+         * @param key 缓存键（资源的 assetPath）
+         * @param size 要读取的字节数
+         */
+        byte[] read(AssetIndex.Entry entry, String key, int size) throws IOException;
+    }
+
+    private final AssetCache cache;
+    private final Executor executor;
+    private final AppLog log;
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public AssetPreloader(AssetCache cache, Executor executor, AppLog log) {
+        this.cache = cache;
+        this.executor = executor;
+        this.log = log;
+    }
+
+    /**
+     * 提交 page 的关键子资源预读，立即返回。
+     * @param index page 所在的资源索引（assets 或网页包）
+     * @param graph 与 index 对应的子资源图
+     * @param page 入口 HTML 的路径
+     * @return 提交的预读数
+     */
+    public int preload(AssetIndex index, PreloadGraph graph, String page, Reader reader) {
+        int count = 0;
+        for (String path : graph.get(page)) {
+            AssetIndex.Entry entry = index.get(path);
+            if (entry == null) continue;
+            String key = entry.assetPath;
+            long size = entry.size;
+            if (size > cache.maxEntryBytes()) continue;
+            try {
+                executor.execute(() -> {
+                    try {
+                        cache.load(key, () -> reader.read(entry, key, (int) size));
+                    } catch (IOException | RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.error("Preload of {} failed: {}", key, e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+            count++;
+        }
+        scheduled.addAndGet(count);
+        return count;
+    }
+
+    public String stats() {
+        return "AssetPreloader: " + scheduled.get() + " scheduled, " + failed.get() + " failed";
+    }
+}
@@ -0,0 +1,191 @@
+package com.wewebviewwrapper.core;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 将拦截到的 URL 解析为资源：空路径与 "/" 映射到 index.html，去掉开头的 "/" 得到相对于资源根目录的路径。
+ * 快速路径直接在 URL 字符串上定位主机与路径区间并查找资源索引，命中时不创建任何对象；
+ * 含百分号编码、"."/".." 段、连续斜杠或反斜杠的路径走慢路径规范化，其中 ".." 段一律拒绝，
+ * 防止访问资源根目录之外的 assets。
+ */
+public final class AssetResolver {
+
+    private static final String INDEX_PATH = "index.html";
+
+    private final String host;
+    private final String assetPrefix;
+
+    /**
+     * @param host 虚拟域名（如 localhost），不区分大小写
+     * @param assetBase assets 中的资源根目录（如 dist），为空时直接使用 assets 根目录
+     */
+    public AssetResolver(String host, String assetBase) {
+        this.host = host;
+        this.assetPrefix = assetBase.isEmpty() ? "" : assetBase + "/";
+    }
+
+    /**
+     * @return URL 的主机是否为虚拟域名（忽略端口，带用户信息的 URL 不处理）
+     */
+    public boolean handles(String url) {
+        int start = authorityStart(url);
+        if (start < 0) return false;
+        int end = pathStart(url, start);
+        int hostEnd = end;
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c == '@') return false;
+            if (c == ':') {
+                hostEnd = i;
+                break;
+            }
+        }
+        return hostEnd - start == host.length() && url.regionMatches(true, start, host, 0, host.length());
+    }
+
+    /**
+     * 解析 URL 并在索引中查找资源。
+     * @return 对应条目；资源不存在或路径被拒绝时返回 null
+     */
+    public AssetIndex.Entry lookup(AssetIndex index, String url) {
+        int start = pathStart(url, authorityStart(url));
+        int end = pathEnd(url, start);
+        if (start < end && url.charAt(start) == '/') start++;
+        if (start == end) return index.get(INDEX_PATH);
+        if (isCanonical(url, start, end)) return index.get(url, start, end);
+        String path = canonicalize(url, start, end);
+        return path != null ? index.get(path) : null;
+    }
+
+    /**
+     * 慢路径：返回规范化后的相对路径，用于未打包索引时的回退与 404 日志。
+     * @return 相对于资源根目录的路径；路径越界或格式非法时返回 null
+     */
+    public String path(String url) {
+        int start = pathStart(url, authorityStart(url));
+        int end = pathEnd(url, start);
+        if (start < end && url.charAt(start) == '/') start++;
+        if (start == end) return INDEX_PATH;
+        if (isCanonical(url, start, end)) return url.substring(start, end);
+        return canonicalize(url, start, end);
+    }
+
+    /**
+     * @param path path 或 lookup 得到的相对路径
+     * @return 传给 AssetManager 的完整路径
+     */
+    public String assetPath(String path) {
+        return assetPrefix + path;
+    }
+
+    /**
+     * 按名称（不区分大小写）读取请求头。
+     */
+    public static String header(Map<String, String> headers, String name) {
+        if (headers == null) return null;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) return header.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * @return "scheme://" 之后主机部分的起始下标，不含 "://" 时返回 -1
+     */
+    private static int authorityStart(String url) {
+        int schemeEnd = url.indexOf("://");
+        return schemeEnd < 0 ? -1 : schemeEnd + 3;
+    }
+
+    /**
+     * @return 主机部分之后第一个 '/'、'?'、'#' 的下标，均不存在时返回 url 长度
+     */
+    private static int pathStart(String url, int authorityStart) {
+        if (authorityStart < 0) return url.length();
+        int length = url.length();
+        for (int i = authorityStart; i < length; i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') return i;
+        }
+        return length;
+    }
+
+    private static int pathEnd(String url, int pathStart) {
+        int end = url.length();
+        int query = url.indexOf('?', pathStart);
+        if (query >= 0) end = query;
+        int fragment = url.indexOf('#', pathStart);
+        return fragment >= 0 && fragment < end ? fragment : end;
+    }
+
+    /**
+     * 以 String.indexOf 判定区间是否无需规范化：不含百分号编码、反斜杠、空段，且没有以 "." 开头的段。
+     * 判定偏保守（以 "." 开头的普通文件名也会走慢路径），换取命中路径上不逐字符扫描。
+     */
+    static boolean isCanonical(String s, int start, int end) {
+        char first = s.charAt(start);
+        if (first == '.' || first == '/') return false;
+        return !containsBefore(s, '%', start, end) && !containsBefore(s, '\\', start, end)
+                && !containsBefore(s, "//", start, end) && !containsBefore(s, "/.", start, end);
+    }
+
+    private static boolean containsBefore(String s, char c, int start, int end) {
+        int i = s.indexOf(c, start);
+        return i >= 0 && i < end;
+    }
+
+    private static boolean containsBefore(String s, String str, int start, int end) {
+        int i = s.indexOf(str, start);
+        return i >= 0 && i + str.length() <= end;
+    }
+
+    /**
+     * 解码百分号编码并逐段规范化：忽略空段与 "." 段，遇到 ".." 段、反斜杠或 NUL 时拒绝。
+     * @return 规范化后的相对路径，被拒绝时返回 null
+     */
+    static String canonicalize(String s, int start, int end) {
+        String decoded = percentDecode(s, start, end);
+        if (decoded == null) return null;
+        StringBuilder sb = new StringBuilder(decoded.length());
+        int segmentStart = 0;
+        int length = decoded.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? decoded.charAt(i) : '/';
+            if (c == '\\' || c == 0) return null;
+            if (c != '/') continue;
+            int segmentLength = i - segmentStart;
+            if (segmentLength == 2 && decoded.startsWith("..", segmentStart)) return null;
+            if (segmentLength > 0 && !(segmentLength == 1 && decoded.charAt(segmentStart) == '.')) {
+                if (sb.length() > 0) sb.append('/');
+                sb.append(decoded, segmentStart, i);
+            }
+            segmentStart = i + 1;
+        }
+        return sb.length() > 0 ? sb.toString() : INDEX_PATH;
+    }
+
+    /**
+     * 按 UTF-8 解码 %XX 序列。WebView 提供的 URL 均为 ASCII，含非 ASCII 字符或编码格式非法时返回 null。
+     */
+    private static String percentDecode(String s, int start, int end) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= end) return null;
+                int high = Character.digit(s.charAt(i + 1), 16);
+                int low = Character.digit(s.charAt(i + 2), 16);
+                if (high < 0 || low < 0) return null;
+                bytes.write((high << 4) | low);
+                i += 2;
+            } else if (c < 0x80) {
+                bytes.write(c);
+            } else {
+                return null;
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
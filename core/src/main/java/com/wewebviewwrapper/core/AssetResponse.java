@@ -0,0 +1,86 @@
+package com.wewebviewwrapper.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 与平台无关的资源响应：状态码、响应头与数据流，由 app 模块转换为 WebResourceResponse。
+ * 工厂方法负责 Range（206 / 416）与 404 等 HTTP 语义。
+ */
+public final class AssetResponse {
+
+    public final int statusCode;
+    public final String reasonPhrase;
+    public final String mimeType;
+    public final Map<String, String> headers;
+    public final InputStream data;
+
+    private AssetResponse(int statusCode, String reasonPhrase, String mimeType, Map<String, String> headers, InputStream data) {
+        this.statusCode = statusCode;
+        this.reasonPhrase = reasonPhrase;
+        this.mimeType = mimeType;
+        this.headers = headers;
+        this.data = data;
+    }
+
+    /**
+     * 构建资源响应：已知长度时附带 Accept-Ranges / Content-Length，
+     * 并根据 Range 请求头返回 206 Partial Content 或 416。
+     * @param size 资源总长度，未知时为 -1（此时忽略 Range 请求）
+     */
+    public static AssetResponse of(InputStream stream, String mimeType, long size, String rangeHeader,
+                                   Map<String, String> headers) throws IOException {
+        if (size < 0) {
+            return new AssetResponse(200, "OK", mimeType, headers, stream);
+        }
+        headers.put("Accept-Ranges", "bytes");
+
+        ByteRange range = ByteRange.parse(rangeHeader, size);
+        if (range == ByteRange.UNSATISFIABLE) {
+            stream.close();
+            headers.put("Content-Range", "bytes */" + size);
+            return new AssetResponse(416, "Range Not Satisfiable", mimeType, headers, new ByteArrayInputStream(new byte[0]));
+        }
+        if (range == null) {
+            headers.put("Content-Length", String.valueOf(size));
+            return new AssetResponse(200, "OK", mimeType, headers, stream);
+        }
+        try {
+            skipFully(stream, range.start);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+        headers.put("Content-Length", String.valueOf(range.length()));
+        headers.put("Content-Range", range.contentRange(size));
+        return new AssetResponse(206, "Partial Content", mimeType, headers, new BoundedInputStream(stream, range.length()));
+    }
+
+    /**
+     * 构建索引中资源的完整（非 Range）响应，响应头取自条目缓存的不可变 Map，不再逐次创建。
+     * @param lastModified 已格式化的 Last-Modified，进程内不变
+     */
+    public static AssetResponse full(InputStream stream, AssetIndex.Entry entry, String lastModified) {
+        return new AssetResponse(200, "OK", entry.mimeType, entry.fullResponseHeaders(lastModified), stream);
+    }
+
+    public static AssetResponse notFound(String assetPath) {
+        String errorHtml = "<html><body><h2 style='color:red;'>404 Not Found</h2><p>" + assetPath + "</p></body></html>";
+        return new AssetResponse(404, "Not Found", "text/html", null,
+                new ByteArrayInputStream(errorHtml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new IOException("Unexpected end of asset stream");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.wewebviewwrapper.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个文件的二进制差分：以旧版本内容为基准，由 COPY（复制基准中的一段）与 ADD（新增字节）指令描述新版本。
+ * 生成时按固定大小分块为基准建立滚动哈希表，在目标内容上逐字节滑动匹配并向前后扩展（rsync 式），
+ * 对只改动少量代码的 JS 包，差分大小通常只有改动量的量级。
+ * <p>
+ * 格式（大端）：magic "WWDL"、版本号、目标长度 (u64)，随后为指令序列：
+ * 1 = COPY 偏移 (u32) 长度 (u32)；2 = ADD 长度 (u32) 与字节；0 = 结束。
+ */
+public final class BundleDelta {
+
+    static final int MAGIC = 0x5757444C;
+    static final int VERSION = 1;
+
+    private static final int OP_END = 0;
+    private static final int OP_COPY = 1;
+    private static final int OP_ADD = 2;
+
+    private static final int BLOCK = 32;
+    private static final int PRIME = 31;
+
+    private BundleDelta() {
+    }
+
+    /**
+     * 生成从 base 到 target 的差分。
+     */
+    public static byte[] create(byte[] base, byte[] target) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, target.length / 8));
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(target.length);
+
+            Map<Integer, Integer> blocks = new HashMap<>();
+            for (int offset = 0; offset + BLOCK <= base.length; offset += BLOCK) {
+                blocks.putIfAbsent(hash(base, offset), offset);
+            }
+            int power = 1;
+            for (int i = 1; i < BLOCK; i++) power *= PRIME;
+
+            int pending = 0;
+            int i = 0;
+            int h = target.length >= BLOCK ? hash(target, 0) : 0;
+            while (i + BLOCK <= target.length) {
+                Integer candidate = blocks.get(h);
+                if (candidate != null && regionEquals(base, candidate, target, i, BLOCK)) {
+                    int start = candidate;
+                    int length = BLOCK;
+                    while (start + length < base.length && i + length < target.length
+                            && base[start + length] == target[i + length]) {
+                        length++;
+                    }
+                    // 向前扩展到尚未输出的 ADD 字节中
+                    int back = 0;
+                    while (back < i - pending && start - back > 0 && base[start - back - 1] == target[i - back - 1]) {
+                        back++;
+                    }
+                    writeAdd(out, target, pending, i - back - pending);
+                    out.writeByte(OP_COPY);
+                    out.writeInt(start - back);
+                    out.writeInt(length + back);
+                    i += length;
+                    pending = i;
+                    if (i + BLOCK <= target.length) h = hash(target, i);
+                } else {
+                    if (i + BLOCK < target.length) {
+                        h = (h - target[i] * power) * PRIME + target[i + BLOCK];
+                    }
+                    i++;
+                }
+            }
+            writeAdd(out, target, pending, target.length - pending);
+            out.writeByte(OP_END);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 将差分应用到 base，得到新版本内容。差分来自网络，其声明的结果长度须与索引中的长度一致才会分配缓冲区。
+     * @param expectedLength 新版本内容的长度（取自资源索引）
+     * @throws IOException 差分格式错误、结果长度与 expectedLength 不符或指令越界
+     */
+    public static byte[] apply(byte[] base, InputStream delta, long expectedLength) throws IOException {
+        DataInputStream in = new DataInputStream(delta);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a bundle delta");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported bundle delta version: " + version);
+        }
+        long targetLength = in.readLong();
+        if (targetLength != expectedLength || targetLength > Integer.MAX_VALUE) {
+            throw new IOException("Delta target length " + targetLength + " does not match expected " + expectedLength);
+        }
+        byte[] target = new byte[(int) targetLength];
+        int position = 0;
+        while (true) {
+            int op = in.read();
+            if (op == OP_END) break;
+            if (op < 0) throw new EOFException("Truncated bundle delta");
+            int offset = op == OP_COPY ? in.readInt() : 0;
+            int length = in.readInt();
+            if (length < 0 || length > target.length - position) {
+                throw new IOException("Delta overflows target at " + position);
+            }
+            if (op == OP_COPY) {
+                if (offset < 0 || offset > base.length - length) {
+                    throw new IOException("Delta copy out of base range: " + offset + "+" + length);
+                }
+                System.arraycopy(base, offset, target, position, length);
+            } else if (op == OP_ADD) {
+                in.readFully(target, position, length);
+            } else {
+                throw new IOException("Unknown delta op: " + op);
+            }
+            position += length;
+        }
+        if (position != target.length) {
+            throw new IOException("Delta produced " + position + " of " + target.length + " bytes");
+        }
+        return target;
+    }
+
+    private static void writeAdd(DataOutputStream out, byte[] target, int start, int length) throws IOException {
+        if (length <= 0) return;
+        out.writeByte(OP_ADD);
+        out.writeInt(length);
+        out.write(target, start, length);
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int h = 0;
+        for (int i = offset; i < offset + BLOCK; i++) {
+            h = h * PRIME + data[i];
+        }
+        return h;
+    }
+
+    private static boolean regionEquals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,195 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * filesDir 下网页包的存储布局：每个版本一个目录，另有 current 指针文件记录当前版本。
+ * 新版本先在 .staging-&lt;版本&gt; 中完整写入并校验，再原子重命名为版本目录，最后以“写临时文件 + 原子重命名”
+ * 更新指针，任一步中断都不会留下半个版本。指针同时记录安装时的 APK 标识，APK 更新后旧网页包自动失效，
+ * 回退到 APK 内置的 assets。
+ * 已存在的版本目录不会被覆盖；不再使用的版本由调用方在切换后通过 {@link #retainOnly} 清理。
+ */
+public final class BundleStore {
+
+    /** filesDir 下的存储目录名，以 '.' 开头，文档提供器不列出。 */
+    public static final String DIR_NAME = ".web-bundles";
+
+    static final String POINTER_FILE = "current";
+    private static final String STAGING_PREFIX = ".staging-";
+
+    // 切换与清理互斥：清理不得看到已移入正式位置、但指针尚未更新的版本目录。同一目录可能有多个实例，因此为静态锁
+    private static final Object LOCK = new Object();
+    // 进程内正在写入的暂存目录（绝对路径），同一版本不得由两个更新同时暂存
+    private static final Set<String> STAGING = new HashSet<>();
+
+    private final File root;
+
+    public BundleStore(File root) {
+        this.root = root;
+    }
+
+    /**
+     * @return 位于 filesDir/{@link #DIR_NAME} 的存储
+     */
+    public static BundleStore in(File filesDir) {
+        return new BundleStore(new File(filesDir, DIR_NAME));
+    }
+
+    /**
+     * @param apkStamp 当前 APK 的标识（如安装/更新时间）
+     * @return 当前网页包；没有、APK 已更新或目录损坏时返回 null
+     */
+    public WebBundle current(String apkStamp) throws IOException {
+        String[] pointer = readPointer();
+        if (pointer == null || !pointer[1].equals(apkStamp)) {
+            return null;
+        }
+        File dir = new File(root, pointer[0]);
+        if (!dir.isDirectory()) {
+            return null;
+        }
+        return WebBundle.open(dir, pointer[0]);
+    }
+
+    /**
+     * @param apkStamp 当前 APK 的标识
+     * @return 当前指针记录的版本；没有或指针由其他 APK 写入（已失效）时返回 null
+     */
+    public String currentVersion(String apkStamp) throws IOException {
+        String[] pointer = readPointer();
+        return pointer != null && pointer[1].equals(apkStamp) ? pointer[0] : null;
+    }
+
+    private String[] readPointer() throws IOException {
+        File file = new File(root, POINTER_FILE);
+        if (!file.isFile()) return null;
+        String[] lines = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).split("\n");
+        if (lines.length < 2 || !isValidVersion(lines[0])) return null;
+        return lines;
+    }
+
+    /**
+     * 版本号只允许字母、数字、'.'、'_'、'-'，不得以 '.' 开头（防止与暂存目录混淆或越出存储目录）。
+     */
+    public static boolean isValidVersion(String version) {
+        if (version.isEmpty() || version.length() > 64 || version.charAt(0) == '.') return false;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 创建（或清空上次中断遗留的内容后重建）版本的暂存目录，之后须以 commit 或 discard 结束。
+     * @throws IOException 进程内已有更新正在暂存同一版本
+     */
+    File createStaging(String version) throws IOException {
+        File staging = new File(root, STAGING_PREFIX + version);
+        synchronized (LOCK) {
+            if (!STAGING.add(staging.getAbsolutePath())) {
+                throw new IOException("Bundle version is already being staged: " + version);
+            }
+        }
+        deleteRecursively(staging);
+        if (!staging.mkdirs()) {
+            release(staging);
+            throw new IOException("Cannot create staging directory: " + staging);
+        }
+        return staging;
+    }
+
+    void discard(File staging) {
+        deleteRecursively(staging);
+        release(staging);
+    }
+
+    private static void release(File staging) {
+        synchronized (LOCK) {
+            STAGING.remove(staging.getAbsolutePath());
+        }
+    }
+
+    /**
+     * 安装前检查版本目录，须在下载任何文件之前调用：目录不存在时返回 true；
+     * 存在但不在 inUse 中（如 APK 更新后失效、或上次切换后遗留的版本）时删除后返回 true；正在使用时返回 false。
+     * @param inUse 正在提供资源与已暂存待切换的网页包版本
+     */
+    boolean clearForInstall(String version, Set<String> inUse) {
+        File dir = new File(root, version);
+        synchronized (LOCK) {
+            if (!dir.exists()) return true;
+            if (inUse.contains(version)) return false;
+            deleteRecursively(dir);
+            return !dir.exists();
+        }
+    }
+
+    /**
+     * 将暂存目录原子切换为正式版本并更新指针。不清理其他版本：旧版本可能仍在提供资源，由调用方在切换后清理。
+     * @throws IOException 版本目录已存在（该版本可能正在提供资源，不能覆盖）
+     */
+    WebBundle commit(File staging, String version, String apkStamp) throws IOException {
+        File dir = new File(root, version);
+        synchronized (LOCK) {
+            if (dir.exists()) {
+                throw new IOException("Bundle version already installed: " + version);
+            }
+            Files.move(staging.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            STAGING.remove(staging.getAbsolutePath());
+
+            File tmp = new File(root, POINTER_FILE + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write((version + "\n" + apkStamp + "\n").getBytes(StandardCharsets.UTF_8));
+                out.getFD().sync();
+            }
+            Files.move(tmp.toPath(), new File(root, POINTER_FILE).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return WebBundle.open(dir, version);
+    }
+
+    /**
+     * 删除 keep 之外的版本目录。指针记录的有效版本与进行中的暂存目录始终保留；指针已失效（APK 更新）时其版本同样删除。
+     * @param keep 仍在使用的版本（正在提供资源与已暂存待切换的网页包）
+     * @param apkStamp 当前 APK 的标识
+     * @return 删除的版本数
+     */
+    public int retainOnly(Set<String> keep, String apkStamp) throws IOException {
+        int deleted = 0;
+        synchronized (LOCK) {
+            String current = currentVersion(apkStamp);
+            File[] children = root.listFiles();
+            if (children == null) return 0;
+            for (File child : children) {
+                String name = child.getName();
+                if (child.isDirectory() && !name.startsWith(STAGING_PREFIX) && !name.equals(current)
+                        && !keep.contains(name)) {
+                    deleteRecursively(child);
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
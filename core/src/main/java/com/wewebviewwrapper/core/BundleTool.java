@@ -0,0 +1,129 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * 生成网页包更新服务器的静态目录（格式见 {@link BundleUpdater}），任何静态 HTTP 服务器都可直接提供，
+ * 本地调试时可用 python3 -m http.server 作为更新服务器的替身。
+ * <pre>
+ * BundleTool &lt;dist 目录&gt; &lt;服务器目录&gt; &lt;版本号&gt; [--base &lt;旧版本 dist 目录&gt;]...
+ * </pre>
+ * 新版本写入 &lt;服务器目录&gt;/&lt;版本号&gt;，并为服务器目录中已有的每个版本以及 --base 指定的目录
+ * （通常是 APK 内置的 dist）生成差分；差分不小于完整文件时不生成。同时写入关键子资源图，最后更新 latest。
+ */
+public final class BundleTool {
+
+    private BundleTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: BundleTool <distDir> <serverDir> <version> [--base <distDir>]...");
+            System.exit(2);
+        }
+        File dist = new File(args[0]);
+        File server = new File(args[1]);
+        String version = args[2];
+        List<File> bases = new ArrayList<>();
+        for (int i = 3; i + 1 < args.length; i += 2) {
+            if (!"--base".equals(args[i])) {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+            bases.add(new File(args[i + 1]));
+        }
+        export(dist, server, version, bases, System.out);
+    }
+
+    static void export(File dist, File server, String version, List<File> bases, PrintStream out) throws IOException {
+        if (!BundleStore.isValidVersion(version)) {
+            throw new IllegalArgumentException("Invalid version: " + version);
+        }
+        List<File> baseDirs = new ArrayList<>(bases);
+        File[] existing = server.listFiles();
+        if (existing != null) {
+            for (File dir : existing) {
+                if (!dir.getName().equals(version) && new File(dir, WebBundle.INDEX_FILE).isFile()) {
+                    baseDirs.add(new File(dir, WebBundle.FILES_DIR));
+                }
+            }
+        }
+
+        File versionDir = new File(server, version);
+        BundleStore.deleteRecursively(versionDir);
+        File filesRoot = new File(versionDir, WebBundle.FILES_DIR);
+        TreeMap<String, String> hashes = new TreeMap<>();
+        collect(dist, "", hashes);
+        if (!filesRoot.mkdirs()) {
+            throw new IOException("Cannot create " + filesRoot);
+        }
+        try (Writer index = Files.newBufferedWriter(new File(versionDir, WebBundle.INDEX_FILE).toPath(), StandardCharsets.UTF_8)) {
+            index.write(AssetIndex.HEADER + "\n");
+            for (String path : hashes.keySet()) {
+                File source = new File(dist, path);
+                index.write(path + "\t" + source.length() + "\t" + MimeTypes.forPath(path) + "\t" + hashes.get(path) + "\t0\n");
+            }
+        }
+
+        try (Writer preload = Files.newBufferedWriter(new File(versionDir, WebBundle.PRELOAD_FILE).toPath(), StandardCharsets.UTF_8)) {
+            PreloadGraph.scan(dist).write(preload);
+        }
+
+        int deltas = 0;
+        long deltaBytes = 0;
+        for (String path : hashes.keySet()) {
+            File source = new File(dist, path);
+            File target = new File(filesRoot, path);
+            target.getParentFile().mkdirs();
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            byte[] content = null;
+            for (File baseDir : baseDirs) {
+                File old = new File(baseDir, path);
+                if (!old.isFile()) continue;
+                String oldHash = hashOf(old);
+                if (oldHash.equals(hashes.get(path))) continue;
+                File deltaFile = new File(versionDir, "delta/" + oldHash + "/" + path);
+                if (deltaFile.isFile()) continue;
+                if (content == null) content = Files.readAllBytes(source.toPath());
+                byte[] delta = BundleDelta.create(Files.readAllBytes(old.toPath()), content);
+                if (delta.length >= content.length) continue;
+                deltaFile.getParentFile().mkdirs();
+                Files.write(deltaFile.toPath(), delta);
+                deltas++;
+                deltaBytes += delta.length;
+            }
+        }
+        Files.write(new File(server, "latest").toPath(), (version + "\n").getBytes(StandardCharsets.UTF_8));
+        out.println("Bundle " + version + ": " + hashes.size() + " files, " + deltas + " deltas ("
+                + deltaBytes / 1024 + " KB) against " + baseDirs.size() + " base(s) -> " + versionDir);
+    }
+
+    private static void collect(File dir, String prefix, TreeMap<String, String> hashes) throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                collect(child, path + "/", hashes);
+            } else {
+                hashes.put(path, hashOf(child));
+            }
+        }
+    }
+
+    private static String hashOf(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return ContentHash.of(in);
+        }
+    }
+}
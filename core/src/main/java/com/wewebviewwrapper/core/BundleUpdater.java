@@ -0,0 +1,278 @@
+package com.wewebviewwrapper.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从更新服务器下载新版本网页包并安装到 {@link BundleStore}。服务器只需提供静态文件（见 {@link BundleTool}）：
+ * <pre>
+ * latest                                  最新版本号
+ * &lt;版本&gt;/bundle.index                   新版本的资源索引（含每个文件的内容哈希）
+ * &lt;版本&gt;/bundle.preload                 关键子资源图，可缺省
+ * &lt;版本&gt;/files/&lt;路径&gt;                  完整文件
+ * &lt;版本&gt;/delta/&lt;旧哈希&gt;/&lt;路径&gt;        以内容为旧哈希的文件为基准的差分，可缺省
+ * </pre>
+ * 每个文件按以下顺序获取：本地已有相同哈希的内容直接复用；同路径旧文件存在时先尝试差分；最后下载完整文件。
+ * 所有结果都按索引中的哈希与长度校验，任一文件失败则丢弃整个暂存版本。
+ */
+public final class BundleUpdater {
+
+    /**
+     * 按相对路径获取更新服务器上的文件。
+     */
+    public interface Transport {
+        /**
+         * @return 文件内容流，文件不存在（如 HTTP 404）时返回 null
+         */
+        InputStream get(String path) throws IOException;
+    }
+
+    /**
+     * 当前提供资源的版本（已安装的网页包或 APK 内置的 assets），作为复用与差分的基准。
+     */
+    public interface Base {
+        String version();
+
+        /**
+         * @return 基准版本的资源索引，没有索引时为 null（此时不复用也不使用差分）
+         */
+        AssetIndex index();
+
+        byte[] read(AssetIndex.Entry entry) throws IOException;
+    }
+
+    /**
+     * 一次更新的结果统计。
+     */
+    public static final class Result {
+        public final WebBundle bundle;
+        public final int reused;
+        public final int patched;
+        public final int downloaded;
+        public final long transferredBytes;
+
+        Result(WebBundle bundle, int reused, int patched, int downloaded, long transferredBytes) {
+            this.bundle = bundle;
+            this.reused = reused;
+            this.patched = patched;
+            this.downloaded = downloaded;
+            this.transferredBytes = transferredBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "bundle " + bundle.version + ": " + reused + " reused, " + patched + " patched, "
+                    + downloaded + " downloaded, " + transferredBytes / 1024 + " KB transferred";
+        }
+    }
+
+    private final BundleStore store;
+    private final Transport transport;
+    private final String apkStamp;
+    private final AppLog log;
+
+    private int reused;
+    private int patched;
+    private int downloaded;
+    private long transferredBytes;
+
+    public BundleUpdater(BundleStore store, Transport transport, String apkStamp, AppLog log) {
+        this.store = store;
+        this.transport = transport;
+        this.apkStamp = apkStamp;
+        this.log = log;
+    }
+
+    /**
+     * 检查并安装最新版本。同一实例不应并发调用。
+     * @param base 当前提供资源的版本
+     * @param inUse 正在提供资源与已暂存待切换的网页包版本，这些版本的目录不会被覆盖
+     * @return 安装结果；已是最新版本或该版本已安装且正在使用时返回 null
+     */
+    public Result update(Base base, Set<String> inUse) throws IOException {
+        byte[] latestBytes = fetch("latest");
+        if (latestBytes == null) {
+            throw new IOException("Update server has no latest version");
+        }
+        String version = new String(latestBytes, StandardCharsets.UTF_8).trim();
+        if (!BundleStore.isValidVersion(version)) {
+            throw new IOException("Invalid bundle version: " + version);
+        }
+        if (version.equals(base.version())) {
+            return null;
+        }
+        // 在下载任何文件之前处理同名目录：失效的旧目录（如 APK 更新后）删除重装，正在使用的版本不重复安装
+        if (!store.clearForInstall(version, inUse)) {
+            log.core("Web bundle {} is already installed and in use", version);
+            return null;
+        }
+        reused = patched = downloaded = 0;
+        transferredBytes = 0;
+
+        File staging = store.createStaging(version);
+        try {
+            byte[] indexBytes = fetch(version + "/" + WebBundle.INDEX_FILE);
+            if (indexBytes == null) {
+                throw new IOException("Bundle index missing for version " + version);
+            }
+            AssetIndex index = AssetIndex.load(new ByteArrayInputStream(indexBytes), "");
+            write(new File(staging, WebBundle.INDEX_FILE), indexBytes);
+            writePreloadGraph(version, staging);
+
+            AssetIndex baseIndex = base.index();
+            Map<String, AssetIndex.Entry> baseByHash = new HashMap<>();
+            if (baseIndex != null) {
+                for (AssetIndex.Entry entry : baseIndex.entries()) {
+                    baseByHash.put(entry.hash, entry);
+                }
+            }
+            File filesRoot = new File(staging, WebBundle.FILES_DIR);
+            for (AssetIndex.Entry entry : index.entries()) {
+                // 路径来自服务器，拒绝任何可能越出网页包目录的写法
+                if (!entry.path.equals(AssetResolver.canonicalize(entry.path, 0, entry.path.length()))) {
+                    throw new IOException("Invalid path in bundle index: " + entry.path);
+                }
+                byte[] data = obtain(version, entry, base, baseByHash.get(entry.hash),
+                        baseIndex != null ? baseIndex.get(entry.path) : null);
+                File target = new File(filesRoot, entry.path);
+                File parent = target.getParentFile();
+                if (!parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("Cannot create directory: " + parent);
+                }
+                write(target, data);
+            }
+            WebBundle bundle = store.commit(staging, version, apkStamp);
+            Result result = new Result(bundle, reused, patched, downloaded, transferredBytes);
+            log.info("Installed {}", result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            store.discard(staging);
+            throw e;
+        }
+    }
+
+    /**
+     * 子资源图只是预读提示（其中的路径使用时都先经索引查找），缺失或格式错误时跳过，不影响安装。
+     */
+    private void writePreloadGraph(String version, File staging) throws IOException {
+        byte[] bytes = fetch(version + "/" + WebBundle.PRELOAD_FILE);
+        if (bytes == null) return;
+        try {
+            PreloadGraph.load(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            log.error("Ignoring preload graph of bundle {}: {}", version, e.getMessage());
+            return;
+        }
+        write(new File(staging, WebBundle.PRELOAD_FILE), bytes);
+    }
+
+    private byte[] obtain(String version, AssetIndex.Entry entry, Base base, AssetIndex.Entry sameContent,
+                          AssetIndex.Entry samePath) throws IOException {
+        if (sameContent != null) {
+            byte[] data = base.read(sameContent);
+            if (matches(entry, data)) {
+                reused++;
+                return data;
+            }
+        }
+        if (samePath != null) {
+            try (InputStream delta = transport.get(version + "/delta/" + samePath.hash + "/" + encodePath(entry.path))) {
+                if (delta != null) {
+                    CountingInputStream counted = new CountingInputStream(delta);
+                    byte[] data = BundleDelta.apply(base.read(samePath), counted, entry.size);
+                    transferredBytes += counted.count;
+                    if (matches(entry, data)) {
+                        patched++;
+                        return data;
+                    }
+                    log.error("Delta for {} failed verification, downloading full file", entry.path);
+                }
+            } catch (IOException e) {
+                log.error("Delta for {} unusable ({}), downloading full file", entry.path, e.getMessage());
+            }
+        }
+        byte[] data = fetch(version + "/files/" + encodePath(entry.path));
+        if (data == null) {
+            throw new IOException("Bundle file missing: " + entry.path);
+        }
+        if (!matches(entry, data)) {
+            throw new IOException("Hash mismatch for " + entry.path);
+        }
+        downloaded++;
+        return data;
+    }
+
+    private static boolean matches(AssetIndex.Entry entry, byte[] data) {
+        return data.length == entry.size && ContentHash.of(data).equals(entry.hash);
+    }
+
+    private byte[] fetch(String path) throws IOException {
+        try (InputStream in = transport.get(path)) {
+            if (in == null) return null;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            transferredBytes += out.size();
+            return out.toByteArray();
+        }
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * 对路径的每个段做百分号编码（保留 '/'），使含空格等字符的文件名可作为 URL 路径。
+     */
+    static String encodePath(String path) {
+        StringBuilder sb = new StringBuilder(path.length() + 16);
+        for (byte b : path.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '/' || c == '-' || c == '_' || c == '.' || c == '~') {
+                sb.append((char) c);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
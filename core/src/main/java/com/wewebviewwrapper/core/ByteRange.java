@@ -0,0 +1,69 @@
+package com.wewebviewwrapper.core;
+
+/**
+ * HTTP Range 请求头（RFC 7233）的单区间解析结果。
+ * 仅支持 bytes 单位的单个区间，多区间请求按普通 200 响应处理。
+ */
+final class ByteRange {
+
+    /** 区间无法满足时返回的标记值，对应 416 响应。 */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    /** 起始偏移（含）。 */
+    final long start;
+    /** 结束偏移（含）。 */
+    final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * 根据 Content-Range 规范生成响应头的值，例如 "bytes 0-99/1000"。
+     */
+    String contentRange(long totalSize) {
+        return "bytes " + start + "-" + end + "/" + totalSize;
+    }
+
+    /**
+     * 解析 Range 请求头。
+     * @param header Range 头的值，可为 null
+     * @param totalSize 资源总长度
+     * @return 解析出的区间；无 Range 头、格式无法识别或为多区间时返回 null；
+     *         区间超出资源范围时返回 {@link #UNSATISFIABLE}
+     */
+    static ByteRange parse(String header, long totalSize) {
+        if (header == null) return null;
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) return null;
+        value = value.substring(6).trim();
+        if (value.indexOf(',') >= 0) return null;
+        int dash = value.indexOf('-');
+        if (dash < 0) return null;
+
+        String first = value.substring(0, dash).trim();
+        String last = value.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // 后缀区间：bytes=-N 表示最后 N 个字节
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || totalSize == 0) return UNSATISFIABLE;
+                return new ByteRange(Math.max(0, totalSize - suffix), totalSize - 1);
+            }
+            long start = Long.parseLong(first);
+            if (start < 0) return null;
+            if (start >= totalSize) return UNSATISFIABLE;
+            long end = last.isEmpty() ? totalSize - 1 : Long.parseLong(last);
+            if (end < start) return null;
+            return new ByteRange(start, Math.min(end, totalSize - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.wewebviewwrapper.core;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.regex.Pattern;
+
+/**
+ * 拦截响应的缓存相关响应头：Cache-Control、ETag 与 Last-Modified。
+ * 文件名带内容哈希的构建产物（如 index-3f9c2e1d.js、app.3f9c2e1d.css）视为不可变资源，
+ * 其余资源（index.html、sw.js、manifest 等）要求每次重新验证。
+ * 哈希不是十六进制的构建工具（如 Vite 5 的 index-BfK3a9xZ.js）需通过 {@link #setHashedNamePattern} 配置文件名规则。
+ * 注意 WebResourceResponse 不接受 3xx 状态码，无法返回 304 Not Modified，
+ * 命中 If-None-Match 的条件请求仍以 200 返回（小文件由内存缓存提供）。
+ */
+public final class CachePolicy {
+
+    static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    static final String CACHE_REVALIDATE = "no-cache";
+
+    // 构建配置的带哈希文件名规则，为 null 时使用默认的十六进制哈希判定
+    private static volatile Pattern hashedNamePattern;
+
+    private CachePolicy() {
+    }
+
+    /**
+     * 设置带哈希文件名的匹配规则（与不含目录的文件名整体匹配），例如 {@code .+-[A-Za-z0-9_-]{8}\.(js|css)}。
+     * @param regex 正则表达式，为 null 或空串时恢复默认判定
+     */
+    public static void setHashedNamePattern(String regex) {
+        hashedNamePattern = regex == null || regex.isEmpty() ? null : Pattern.compile(regex);
+    }
+
+    /**
+     * 生成缓存相关响应头：带哈希文件名的资源标记为 immutable，其余要求重新验证；
+     * ETag 取自资源索引中的内容哈希。返回的 Map 可继续写入其他响应头。
+     * @param path 相对于资源根目录的路径
+     * @param entry 资源索引条目，未打包索引时为 null（不生成 ETag）
+     * @param lastModified 已格式化的 Last-Modified 取值
+     */
+    public static Map<String, String> headers(String path, AssetIndex.Entry entry, String lastModified) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", cacheControl(path));
+        headers.put("Last-Modified", lastModified);
+        if (entry != null) {
+            headers.put("ETag", etag(entry.hash));
+        }
+        return headers;
+    }
+
+    static String cacheControl(String path) {
+        return isHashedName(path) ? CACHE_IMMUTABLE : CACHE_REVALIDATE;
+    }
+
+    /**
+     * 判断文件名是否带有构建工具生成的内容哈希段。未配置规则时要求扩展名前以 '-' 或 '.' 分隔的段
+     * 是至少 8 位的小写十六进制串，且同时包含数字与字母（排除 20240101 这类日期与 section1 这类普通名称）。
+     */
+    static boolean isHashedName(String path) {
+        int nameStart = path.lastIndexOf('/') + 1;
+        Pattern pattern = hashedNamePattern;
+        if (pattern != null) {
+            return pattern.matcher(path).region(nameStart, path.length()).matches();
+        }
+        int extStart = path.lastIndexOf('.');
+        if (extStart <= nameStart) return false;
+        int segmentStart = -1;
+        for (int i = extStart - 1; i >= nameStart; i--) {
+            char c = path.charAt(i);
+            if (c == '-' || c == '.') {
+                segmentStart = i + 1;
+                break;
+            }
+        }
+        if (segmentStart < 0) return false;
+        int length = extStart - segmentStart;
+        if (length < 8 || length > 64) return false;
+        boolean hasDigit = false;
+        boolean hasLetter = false;
+        for (int i = segmentStart; i < extStart; i++) {
+            char c = path.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c >= 'a' && c <= 'f') {
+                hasLetter = true;
+            } else {
+                return false;
+            }
+        }
+        return hasDigit && hasLetter;
+    }
+
+    /**
+     * @param hash 资源内容哈希（来自资源索引）
+     * @return 强校验 ETag
+     */
+    static String etag(String hash) {
+        return "\"" + hash + "\"";
+    }
+
+    /**
+     * 按 RFC 7231 格式化 HTTP 日期，例如 "Sun, 06 Nov 1994 08:49:37 GMT"。
+     */
+    public static String httpDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(millis));
+    }
+}
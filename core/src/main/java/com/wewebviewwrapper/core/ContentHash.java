@@ -0,0 +1,55 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 资源内容哈希：SHA-256 截断为 128 位的十六进制串，与 generateAssetIndex 任务写入索引的哈希一致，
+ * 同时用作 ETag 与网页包更新时的完整性校验。
+ */
+public final class ContentHash {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int HASH_BYTES = 16;
+
+    private ContentHash() {
+    }
+
+    public static String of(byte[] data) {
+        MessageDigest digest = sha256();
+        digest.update(data);
+        return hex(digest.digest());
+    }
+
+    /**
+     * 读取流直至结束并计算哈希，调用方负责关闭流。
+     */
+    public static String of(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, n);
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        char[] out = new char[HASH_BYTES * 2];
+        for (int i = 0; i < HASH_BYTES; i++) {
+            out[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,373 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+
+/**
+ * 文档提供器的目录列举：在后台线程以 DirectoryStream 与 {@link FileEntry#read} 列举目录，结果按目录缓存为快照。
+ * 查询只需等到第一页（pageSize 项）即可返回，其余部分继续在后台列举；已列举 pageSize、2·pageSize、4·pageSize…
+ * 项以及列举结束时回调一次，调用方据此通知客户端重新查询，通知次数随目录大小按对数增长。
+ * 列举完成的快照按排序方式缓存排好序的列表，重新查询与切换排序不再访问文件系统。
+ * 提供 {@link Watcher} 时快照创建即开始监听其目录，调用方在子项变化时以 {@link #childChanged} 只更新变化的一项，
+ * 被监听的快照一直有效，查询不再访问文件系统；未被监听的快照在目录的修改时间变化（增删子项）、
+ * 超过保留时间或调用 {@link #invalidate} 后重新列举。
+ */
+public final class DirectoryLister {
+
+    /**
+     * 目录监听，例如 Android 的 FileObserver。
+     */
+    public interface Watcher {
+        /**
+         * 开始监听 dir 的子项变化。
+         * @return 停止监听的操作；无法监听时返回 null，快照退回按修改时间与保留时间判断有效性
+         */
+        Runnable watch(Path dir);
+    }
+
+    /**
+     * 一个目录的列举结果，列举过程中即可读取已列出的部分。
+     */
+    public static final class Snapshot {
+        private final long dirModified;
+        private final long createdMillis;
+        private final Predicate<String> exclude;
+        // 名称到元数据，保持列举顺序；列举完成后按名称原地更新
+        private final Map<String, FileEntry> entries = new LinkedHashMap<>();
+        private final Map<String, List<FileEntry>> sorted = new HashMap<>();
+        // 列举期间发生变化的子项，列举结束后重新读取
+        private final Set<String> pending = new HashSet<>();
+        private final CountDownLatch firstPage = new CountDownLatch(1);
+        private volatile boolean complete;
+        private volatile IOException error;
+        private Runnable stopWatching;
+        private boolean discarded;
+
+        Snapshot(long dirModified, long createdMillis, Predicate<String> exclude) {
+            this.dirModified = dirModified;
+            this.createdMillis = createdMillis;
+            this.exclude = exclude;
+        }
+
+        /**
+         * 等待第一页列举完成（目录不足一页时即整个目录）。
+         * @throws IOException 列举出错且没有列出任何子项
+         */
+        public void awaitFirstPage() throws IOException {
+            try {
+                firstPage.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while listing directory");
+            }
+            IOException e = error;
+            if (e != null && size() == 0) throw e;
+        }
+
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * @param sortOrder 查询的排序方式（见 {@link #comparator}），可为 null
+         * @return 已列出的子项：列举完成后按 sortOrder 排序（结果缓存至下次更新），未完成时为列举顺序的副本
+         */
+        public synchronized List<FileEntry> entries(String sortOrder) {
+            if (!complete) return new ArrayList<>(entries.values());
+            Comparator<FileEntry> order = comparator(sortOrder);
+            String key = order == null ? "" : sortOrder.trim().toLowerCase(Locale.ROOT);
+            List<FileEntry> list = sorted.get(key);
+            if (list == null) {
+                list = new ArrayList<>(entries.values());
+                if (order != null) list.sort(order);
+                list = Collections.unmodifiableList(list);
+                sorted.put(key, list);
+            }
+            return list;
+        }
+
+        synchronized FileEntry entry(String name) {
+            return entries.get(name);
+        }
+
+        /**
+         * @return 被监听且未被丢弃，内容随目录变化更新
+         */
+        synchronized boolean isWatched() {
+            return stopWatching != null && !discarded;
+        }
+
+        /**
+         * @return 已添加的项数达到下一个通知点时返回 true
+         */
+        private synchronized boolean add(FileEntry entry, int pageSize) {
+            entries.put(entry.name, entry);
+            int n = entries.size();
+            if (n == pageSize) firstPage.countDown();
+            // pageSize 的 2 的幂倍数
+            return n % pageSize == 0 && Integer.bitCount(n / pageSize) == 1;
+        }
+
+        /**
+         * 列举未完成时记下变化的子项留待列举结束后处理。
+         * @return 已记下；列举已完成时返回 false，由调用方读取后调用 {@link #replace}
+         */
+        private synchronized boolean defer(String name) {
+            if (complete) return false;
+            pending.add(name);
+            return true;
+        }
+
+        /**
+         * @param entry 子项的新元数据，子项已不存在时为 null
+         */
+        private synchronized void replace(String name, FileEntry entry) {
+            if (entry != null) {
+                entries.put(name, entry);
+            } else {
+                entries.remove(name);
+            }
+            sorted.clear();
+        }
+
+        /**
+         * @return 列举期间发生变化的子项
+         */
+        private List<String> finish(IOException e) {
+            error = e;
+            List<String> changed;
+            synchronized (this) {
+                complete = true;
+                changed = new ArrayList<>(pending);
+                pending.clear();
+            }
+            firstPage.countDown();
+            return changed;
+        }
+
+        private void setWatch(Runnable stop) {
+            boolean stopNow;
+            synchronized (this) {
+                stopNow = discarded;
+                if (!stopNow) stopWatching = stop;
+            }
+            if (stopNow) stop.run();
+        }
+
+        private void discard() {
+            Runnable stop;
+            synchronized (this) {
+                discarded = true;
+                stop = stopWatching;
+                stopWatching = null;
+            }
+            if (stop != null) stop.run();
+        }
+    }
+
+    private final Executor executor;
+    private final int pageSize;
+    private final long maxAgeMillis;
+    private final Watcher watcher;
+    private final Map<Path, Snapshot> snapshots;
+
+    public DirectoryLister(Executor executor, int pageSize, int capacity, long maxAgeMillis) {
+        this(executor, pageSize, capacity, maxAgeMillis, null);
+    }
+
+    /**
+     * @param executor 执行列举的后台线程池
+     * @param pageSize 第一页的项数，也是通知间隔的基数
+     * @param capacity 缓存的目录数，超出时丢弃最久未查询的快照并停止监听
+     * @param maxAgeMillis 未被监听的快照最长复用时间（子项内容的修改不会改变目录的修改时间）
+     * @param watcher 目录监听，可为 null
+     */
+    public DirectoryLister(Executor executor, int pageSize, int capacity, long maxAgeMillis, Watcher watcher) {
+        this.executor = executor;
+        this.pageSize = pageSize;
+        this.maxAgeMillis = maxAgeMillis;
+        this.watcher = watcher;
+        this.snapshots = new LinkedHashMap<Path, Snapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Snapshot> eldest) {
+                if (size() <= capacity) return false;
+                eldest.getValue().discard();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * 返回目录的快照：缓存的快照仍有效（被监听、正在列举，或目录未变化且未过期）时直接返回，否则开始新的后台列举。
+     * @param exclude 不列出的子项名称，可为 null
+     * @param onProgress 列出新的一批子项或列举结束时在后台线程调用，只对新开始的列举生效
+     * @throws java.nio.file.NoSuchFileException 目录不存在
+     */
+    public Snapshot get(Path dir, Predicate<String> exclude, Runnable onProgress) throws IOException {
+        synchronized (snapshots) {
+            Snapshot snapshot = snapshots.get(dir);
+            if (snapshot != null && snapshot.isWatched()) return snapshot;
+        }
+        long modified = Files.getLastModifiedTime(dir).toMillis();
+        long now = System.currentTimeMillis();
+        Snapshot snapshot;
+        Snapshot replaced;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(dir);
+            if (snapshot != null && (!snapshot.isComplete() || snapshot.isWatched()
+                    || (snapshot.dirModified == modified && now - snapshot.createdMillis <= maxAgeMillis))) {
+                return snapshot;
+            }
+            replaced = snapshot;
+            snapshot = new Snapshot(modified, now, exclude);
+            snapshots.put(dir, snapshot);
+        }
+        if (replaced != null) replaced.discard();
+        // 先开始监听再列举，列举期间的变化不会遗漏
+        if (watcher != null) {
+            Runnable stop = watcher.watch(dir);
+            if (stop != null) snapshot.setWatch(stop);
+        }
+        final Snapshot loading = snapshot;
+        executor.execute(() -> load(dir, loading, onProgress));
+        return snapshot;
+    }
+
+    /**
+     * 目录的一个子项被创建、删除、修改或重命名后更新其快照中的这一项（目录没有缓存的快照时不做处理）。
+     * 由目录监听的回调以及调用方自身修改文件后调用，重复调用无副作用。
+     */
+    public void childChanged(Path dir, String name) {
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(dir);
+        }
+        if (snapshot == null || (snapshot.exclude != null && snapshot.exclude.test(name))) return;
+        if (snapshot.defer(name)) return;
+        snapshot.replace(name, readOrNull(dir.resolve(name)));
+    }
+
+    /**
+     * @return 被监听的快照中 name 的元数据；目录未被监听、仍在列举或快照中没有该项时返回 null
+     */
+    public FileEntry cachedEntry(Path dir, String name) {
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(dir);
+        }
+        if (snapshot == null || !snapshot.isComplete() || !snapshot.isWatched()) return null;
+        return snapshot.entry(name);
+    }
+
+    /**
+     * 丢弃目录及其下各目录的快照并停止监听，下次查询时重新列举（目录本身被删除或移动时调用）。
+     */
+    public void invalidate(Path dir) {
+        List<Snapshot> discarded = new ArrayList<>();
+        synchronized (snapshots) {
+            Iterator<Map.Entry<Path, Snapshot>> it = snapshots.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Path, Snapshot> entry = it.next();
+                if (entry.getKey().startsWith(dir)) {
+                    discarded.add(entry.getValue());
+                    it.remove();
+                }
+            }
+        }
+        for (Snapshot snapshot : discarded) {
+            snapshot.discard();
+        }
+    }
+
+    private void load(Path dir, Snapshot snapshot, Runnable onProgress) {
+        IOException error = null;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                Path fileName = child.getFileName();
+                if (fileName == null || (snapshot.exclude != null && snapshot.exclude.test(fileName.toString()))) continue;
+                FileEntry entry = readOrNull(child);
+                // 列举期间被删除，或为断开的符号链接
+                if (entry == null) continue;
+                if (snapshot.add(entry, pageSize) && onProgress != null) {
+                    onProgress.run();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            error = e instanceof IOException ? (IOException) e : new IOException(e);
+            boolean removed;
+            synchronized (snapshots) {
+                removed = snapshots.remove(dir, snapshot);
+            }
+            if (removed) snapshot.discard();
+        }
+        for (String name : snapshot.finish(error)) {
+            snapshot.replace(name, readOrNull(dir.resolve(name)));
+        }
+        if (onProgress != null) onProgress.run();
+    }
+
+    private static FileEntry readOrNull(Path path) {
+        try {
+            return FileEntry.read(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析 DocumentsContract 查询的 sortOrder，例如 "_display_name ASC"、"last_modified DESC, _size"。
+     * 支持 _display_name、_size 与 last_modified 三列，列后的 COLLATE NOCASE 表示忽略大小写比较名称。
+     * @return 比较器；sortOrder 为空或含无法识别的列时返回 null，即保持列举顺序
+     */
+    public static Comparator<FileEntry> comparator(String sortOrder) {
+        if (sortOrder == null || sortOrder.trim().isEmpty()) return null;
+        Comparator<FileEntry> result = null;
+        for (String term : sortOrder.split(",")) {
+            String[] tokens = term.trim().split("\\s+");
+            boolean descending = false;
+            boolean noCase = false;
+            for (int i = 1; i < tokens.length; i++) {
+                if ("DESC".equalsIgnoreCase(tokens[i])) descending = true;
+                if ("NOCASE".equalsIgnoreCase(tokens[i])) noCase = true;
+            }
+            Comparator<FileEntry> order;
+            switch (tokens[0].toLowerCase(Locale.ROOT)) {
+                case "_display_name":
+                    order = Comparator.comparing(e -> e.name, noCase ? String.CASE_INSENSITIVE_ORDER : Comparator.naturalOrder());
+                    break;
+                case "_size":
+                    order = Comparator.comparingLong(e -> e.size);
+                    break;
+                case "last_modified":
+                    order = Comparator.comparingLong(e -> e.lastModified);
+                    break;
+                default:
+                    return null;
+            }
+            if (descending) order = order.reversed();
+            result = result == null ? order : result.thenComparing(order);
+        }
+        return result;
+    }
+}
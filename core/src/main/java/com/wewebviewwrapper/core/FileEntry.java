@@ -0,0 +1,56 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+
+/**
+ * 文档提供器中一个文件的元数据：以一次 Files.readAttributes（一次 stat）取得类型、大小、修改时间与权限位，
+ * 取代 File.isDirectory / length / lastModified / canWrite 各自一次的系统调用。
+ * 可写性取自属主的写权限位（应用私有目录中的文件属主均为应用自身），不再单独调用 access。
+ */
+public final class FileEntry {
+
+    // 默认文件系统支持 posix 视图时权限位与其他属性在同一次 stat 中取得（Android 与 Linux 均支持）
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    public final String name;
+    public final boolean directory;
+    public final long size;
+    public final long lastModified;
+    public final boolean writable;
+
+    public FileEntry(String name, boolean directory, long size, long lastModified, boolean writable) {
+        this.name = name;
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.writable = writable;
+    }
+
+    /**
+     * 读取 path 的元数据（跟随符号链接，与 java.io.File 一致）。
+     * @throws java.nio.file.NoSuchFileException 文件不存在（或为断开的符号链接）
+     */
+    public static FileEntry read(Path path) throws IOException {
+        Path fileName = path.getFileName();
+        String name = fileName != null ? fileName.toString() : path.toString();
+        if (POSIX) {
+            PosixFileAttributes attrs = Files.readAttributes(path, PosixFileAttributes.class);
+            return new FileEntry(name, attrs.isDirectory(), attrs.size(), attrs.lastModifiedTime().toMillis(),
+                    attrs.permissions().contains(PosixFilePermission.OWNER_WRITE));
+        }
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileEntry(name, attrs.isDirectory(), attrs.size(), attrs.lastModifiedTime().toMillis(),
+                Files.isWritable(path));
+    }
+
+    @Override
+    public String toString() {
+        return name + (directory ? "/" : "") + " (" + size + " bytes)";
+    }
+}
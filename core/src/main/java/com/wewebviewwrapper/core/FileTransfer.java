@@ -0,0 +1,156 @@
+package com.wewebviewwrapper.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 文档提供器在服务端完成的复制与移动，数据不经过客户端与 Binder：
+ * 文件以 FileChannel.transferTo 复制（Linux 上由内核在文件之间直接拷贝，不经用户态缓冲区），
+ * 目录树先按顺序创建目录、再由线程池并行复制其中的文件；同一文件系统内的移动为一次原子重命名，与文件大小无关。
+ */
+public final class FileTransfer {
+
+    private FileTransfer() {
+    }
+
+    /**
+     * 将 source 复制为 target（target 不得已存在），target 为目录时连同其下所有文件并行复制。
+     * 失败时删除已复制的部分。
+     * @param executor 并行复制文件的线程池，复制单个文件时不使用
+     */
+    public static void copy(Path source, Path target, ExecutorService executor) throws IOException {
+        if (Files.isDirectory(source)) {
+            copyTree(source, target, executor);
+        } else {
+            copyFile(source, target);
+        }
+    }
+
+    /**
+     * 复制单个文件，target 不得已存在。
+     */
+    public static void copyFile(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                long n = in.transferTo(position, size - position, out);
+                // 复制期间源文件被截断
+                if (n <= 0) break;
+                position += n;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * 复制目录树：遍历时按顺序创建目录（不跟随符号链接），文件交给 executor 并行复制，全部完成后返回。
+     * 任一文件失败时不再开始新的复制，等待进行中的复制结束后删除 target 并抛出第一个异常。
+     */
+    public static void copyTree(Path source, Path target, ExecutorService executor) throws IOException {
+        if (target.toAbsolutePath().normalize().startsWith(source.toAbsolutePath().normalize())) {
+            throw new IOException("Cannot copy a directory into itself: " + source);
+        }
+        List<Future<?>> copies = new ArrayList<>();
+        AtomicBoolean failed = new AtomicBoolean();
+        IOException error = null;
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectory(target.resolve(source.relativize(dir)));
+                    return failed.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    Path to = target.resolve(source.relativize(file));
+                    copies.add(executor.submit(() -> {
+                        if (failed.get()) return null;
+                        try {
+                            copyFile(file, to);
+                        } catch (IOException | RuntimeException e) {
+                            failed.set(true);
+                            throw e;
+                        }
+                        return null;
+                    }));
+                    return failed.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            failed.set(true);
+            error = e;
+        }
+        for (Future<?> copy : copies) {
+            try {
+                copy.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    Throwable cause = e.getCause();
+                    error = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.set(true);
+                if (error == null) error = new InterruptedIOException("Interrupted while copying " + source);
+            }
+        }
+        if (error != null) {
+            BundleStore.deleteRecursively(target.toFile());
+            throw error;
+        }
+    }
+
+    /**
+     * 将 source 移动为 target（target 不得已存在）。同一文件系统内为原子重命名；
+     * 跨文件系统时退回为复制后删除源文件。
+     */
+    public static void move(Path source, Path target, ExecutorService executor) throws IOException {
+        if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException("Target already exists: " + target);
+        }
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        } catch (AtomicMoveNotSupportedException e) {
+            // 不在同一文件系统
+        }
+        copy(source, target, executor);
+        BundleStore.deleteRecursively(source.toFile());
+    }
+
+    /**
+     * @return dir 中名为 name 的路径；已存在时依次尝试 "name (1).ext"、"name (2).ext"…（目录不拆分扩展名）
+     */
+    public static Path uniqueTarget(Path dir, String name, boolean directory) {
+        Path target = dir.resolve(name);
+        if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) return target;
+        int dot = directory ? -1 : name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 1; ; i++) {
+            target = dir.resolve(base + " (" + i + ")" + extension);
+            if (!Files.exists(target, LinkOption.NOFOLLOW_LINKS)) return target;
+        }
+    }
+}
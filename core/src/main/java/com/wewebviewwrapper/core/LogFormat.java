@@ -0,0 +1,90 @@
+package com.wewebviewwrapper.core;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * 日志文本格式化工具：占位符替换与不分配对象的时间戳输出。
+ * 时间戳直接按本地时区偏移写入 StringBuilder，时区偏移按小时缓存，避免每行创建 SimpleDateFormat 与 Date。
+ */
+public final class LogFormat {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private static final TimeZone ZONE = TimeZone.getDefault();
+    // 缓存当前小时对应的时区偏移，[hourStart, offset] 组合以不可变数组整体替换，保证并发读取一致
+    private static volatile long[] cachedOffset = {Long.MIN_VALUE, 0};
+
+    private LogFormat() {
+    }
+
+    /**
+     * 以 {} 为占位符依次替换参数，参数不足时保留占位符原文。
+     * @param argCount 实际参数个数（0~3）
+     */
+    public static String format(String pattern, Object arg1, Object arg2, Object arg3, int argCount) {
+        StringBuilder sb = new StringBuilder(pattern.length() + 32 * argCount);
+        int argIndex = 0;
+        int start = 0;
+        while (true) {
+            int placeholder = pattern.indexOf("{}", start);
+            if (placeholder < 0 || argIndex >= argCount) break;
+            sb.append(pattern, start, placeholder);
+            Object arg = argIndex == 0 ? arg1 : argIndex == 1 ? arg2 : arg3;
+            appendValue(sb, arg);
+            argIndex++;
+            start = placeholder + 2;
+        }
+        sb.append(pattern, start, pattern.length());
+        return sb.toString();
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value instanceof Object[]) {
+            sb.append(Arrays.toString((Object[]) value));
+        } else {
+            sb.append(value);
+        }
+    }
+
+    /**
+     * 以 HH:mm:ss.SSS 格式将本地时间追加到 sb。
+     */
+    public static void appendTime(StringBuilder sb, long timeMillis) {
+        long local = timeMillis + offsetAt(timeMillis);
+        int millisOfDay = (int) Math.floorMod(local, DAY_MILLIS);
+        appendPadded(sb, millisOfDay / 3_600_000, 2);
+        sb.append(':');
+        appendPadded(sb, millisOfDay / 60_000 % 60, 2);
+        sb.append(':');
+        appendPadded(sb, millisOfDay / 1000 % 60, 2);
+        sb.append('.');
+        appendPadded(sb, millisOfDay % 1000, 3);
+    }
+
+    /**
+     * 追加一条完整日志：[HH:mm:ss.SSS] [LEVEL] message，末尾带空行分隔。
+     */
+    public static void appendEntry(StringBuilder sb, LogStore.Entry entry) {
+        sb.append('[');
+        appendTime(sb, entry.timeMillis);
+        sb.append("] [").append(entry.level.name()).append("] ").append(entry.message).append("\n\n");
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        if (width == 3 && value < 100) sb.append('0');
+        if (value < 10) sb.append('0');
+        sb.append(value);
+    }
+
+    private static long offsetAt(long timeMillis) {
+        long hourStart = timeMillis - Math.floorMod(timeMillis, HOUR_MILLIS);
+        long[] cached = cachedOffset;
+        if (cached[0] != hourStart) {
+            cached = new long[]{hourStart, ZONE.getOffset(timeMillis)};
+            cachedOffset = cached;
+        }
+        return cached[1];
+    }
+}
@@ -0,0 +1,203 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 基于内存映射文件的环形二进制日志，进程崩溃后内容仍保留在页缓存中并由内核写回，无需逐行 fsync。
+ * 文件由固定大小的槽位组成，每条日志占用一个或多个连续槽位（长消息拆分），槽位按序号取模循环覆盖：
+ * <pre>
+ * [magic:int][crc32:int][sequence:long][timeMillis:long][level:byte][flags:byte][length:short][payload...]
+ * </pre>
+ * CRC 覆盖 sequence 至 payload 末尾，写入中途被杀死的槽位在解码时会被丢弃。
+ */
+public final class LogJournal {
+
+    public static final String DIR_NAME = ".logs";
+    public static final String FILE_NAME = "journal.bin";
+
+    private static final int MAGIC = 0x574A524E; // "WJRN"
+    private static final int SLOT_SIZE = 1024;
+    private static final int SLOT_COUNT = 1024;
+    private static final int HEADER_SIZE = 28;
+    private static final int PAYLOAD_SIZE = SLOT_SIZE - HEADER_SIZE;
+    private static final byte FLAG_CONTINUED = 1;
+    private static final int MAX_MESSAGE_SLOTS = 16;
+
+    private static LogJournal shared;
+
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private final byte[] slotBytes = new byte[SLOT_SIZE];
+    private final List<LogStore.Entry> previousEntries;
+    private long nextSequence;
+
+    private LogJournal(MappedByteBuffer buffer, List<LogStore.Entry> previousEntries, long nextSequence) {
+        this.buffer = buffer;
+        this.previousEntries = previousEntries;
+        this.nextSequence = nextSequence;
+    }
+
+    public static File fileIn(File filesDir) {
+        return new File(new File(filesDir, DIR_NAME), FILE_NAME);
+    }
+
+    /**
+     * 返回进程内共享的日志实例，首次调用时打开（或创建）文件并映射到内存，同时解码此前运行留下的条目。
+     * 同一文件只映射一次，Activity 重建不会产生第二个写入者。映射在进程存活期间保持有效，无需关闭。
+     */
+    public static synchronized LogJournal openShared(File filesDir) throws IOException {
+        if (shared == null) {
+            shared = open(fileIn(filesDir));
+        }
+        return shared;
+    }
+
+    private static LogJournal open(File journalFile) throws IOException {
+        File dir = journalFile.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create journal directory: " + dir);
+        }
+        // 映射建立后关闭文件不影响映射的有效性
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "rw")) {
+            long size = (long) SLOT_SIZE * SLOT_COUNT;
+            if (raf.length() != size) {
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+            MappedByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            List<Slot> slots = readSlots(mapped);
+            long next = slots.isEmpty() ? 0 : slots.get(slots.size() - 1).sequence + 1;
+            return new LogJournal(mapped, assemble(slots), next);
+        }
+    }
+
+    /**
+     * @return 首次打开时文件中已有的条目（上次及更早的运行），按写入顺序排列
+     */
+    public List<LogStore.Entry> previousEntries() {
+        return previousEntries;
+    }
+
+    /**
+     * 追加一条日志，超长消息拆分到连续槽位（最多 16 个），超出部分截断。
+     */
+    public synchronized void append(long timeMillis, LogStore.Level level, String message) {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        int slots = Math.max(1, Math.min(MAX_MESSAGE_SLOTS, (payload.length + PAYLOAD_SIZE - 1) / PAYLOAD_SIZE));
+        int offset = 0;
+        for (int i = 0; i < slots; i++) {
+            int length = Math.min(PAYLOAD_SIZE, payload.length - offset);
+            boolean continued = i < slots - 1;
+            writeSlot(nextSequence++, timeMillis, level, continued, payload, offset, length);
+            offset += length;
+        }
+    }
+
+    private void writeSlot(long sequence, long timeMillis, LogStore.Level level, boolean continued,
+                           byte[] payload, int offset, int length) {
+        ByteBuffer slot = ByteBuffer.wrap(slotBytes);
+        slot.putInt(MAGIC).putInt(0).putLong(sequence).putLong(timeMillis)
+                .put((byte) level.ordinal()).put(continued ? FLAG_CONTINUED : 0).putShort((short) length)
+                .put(payload, offset, length);
+        crc.reset();
+        crc.update(slotBytes, 8, HEADER_SIZE - 8 + length);
+        slot.putInt(4, (int) crc.getValue());
+
+        int position = (int) (sequence % SLOT_COUNT) * SLOT_SIZE;
+        // 先写入除 magic 外的内容，最后写 magic，降低崩溃时留下“看似有效”槽位的概率
+        buffer.putInt(position, 0);
+        buffer.position(position + 4);
+        buffer.put(slotBytes, 4, HEADER_SIZE - 4 + length);
+        buffer.putInt(position, MAGIC);
+    }
+
+    /**
+     * 以只读方式解码日志文件，可在写入进程运行时调用（正在写入的槽位会因 CRC 不符被跳过）。
+     */
+    public static List<LogStore.Entry> decode(File journalFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(journalFile, "r")) {
+            long size = Math.min(raf.length(), (long) SLOT_SIZE * SLOT_COUNT);
+            ByteBuffer data = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return assemble(readSlots(data));
+        }
+    }
+
+    private static final class Slot {
+        final long sequence;
+        final long timeMillis;
+        final int level;
+        final boolean continued;
+        final byte[] payload;
+
+        Slot(long sequence, long timeMillis, int level, boolean continued, byte[] payload) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.continued = continued;
+            this.payload = payload;
+        }
+    }
+
+    private static List<Slot> readSlots(ByteBuffer data) {
+        List<Slot> slots = new ArrayList<>();
+        CRC32 checksum = new CRC32();
+        byte[] raw = new byte[SLOT_SIZE];
+        int count = data.capacity() / SLOT_SIZE;
+        for (int i = 0; i < count; i++) {
+            ByteBuffer slot = data.duplicate();
+            slot.position(i * SLOT_SIZE);
+            slot.get(raw);
+            ByteBuffer view = ByteBuffer.wrap(raw);
+            if (view.getInt(0) != MAGIC) continue;
+            int length = view.getShort(26) & 0xFFFF;
+            if (length > PAYLOAD_SIZE) continue;
+            checksum.reset();
+            checksum.update(raw, 8, HEADER_SIZE - 8 + length);
+            if ((int) checksum.getValue() != view.getInt(4)) continue;
+            byte[] payload = new byte[length];
+            System.arraycopy(raw, HEADER_SIZE, payload, 0, length);
+            slots.add(new Slot(view.getLong(8), view.getLong(16), view.get(24), view.get(25) == FLAG_CONTINUED, payload));
+        }
+        Collections.sort(slots, (a, b) -> Long.compare(a.sequence, b.sequence));
+        return slots;
+    }
+
+    /**
+     * 按序号把拆分的槽位拼回完整消息；缺失前段或后段的消息保留可用部分。
+     */
+    private static List<LogStore.Entry> assemble(List<Slot> slots) {
+        List<LogStore.Entry> entries = new ArrayList<>();
+        LogStore.Level[] levels = LogStore.Level.values();
+        int i = 0;
+        while (i < slots.size()) {
+            Slot first = slots.get(i);
+            int totalLength = first.payload.length;
+            int j = i;
+            while (slots.get(j).continued && j + 1 < slots.size() && slots.get(j + 1).sequence == slots.get(j).sequence + 1) {
+                j++;
+                totalLength += slots.get(j).payload.length;
+            }
+            byte[] joined = new byte[totalLength];
+            int offset = 0;
+            for (int k = i; k <= j; k++) {
+                byte[] part = slots.get(k).payload;
+                System.arraycopy(part, 0, joined, offset, part.length);
+                offset += part.length;
+            }
+            LogStore.Level level = first.level >= 0 && first.level < levels.length ? levels[first.level] : LogStore.Level.INFO;
+            entries.add(new LogStore.Entry(first.sequence, first.timeMillis, level, new String(joined, StandardCharsets.UTF_8)));
+            i = j + 1;
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,127 @@
+package com.wewebviewwrapper.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 固定容量的环形日志存储，写满后覆盖最旧的条目，内存占用有上限。
+ * 追加操作无锁（序号自增 + 槽位原子写入），可安全地从 WebView IO 线程、UI 线程并发调用；
+ * 快照只复制条目引用，文本导出仅在需要时（复制、显示）进行。
+ */
+public final class LogStore {
+
+    public enum Level {
+        CORE, INFO, ERROR
+    }
+
+    /**
+     * 单条结构化日志，创建后不可变。
+     */
+    public static final class Entry {
+        public final long sequence;
+        public final long timeMillis;
+        public final Level level;
+        public final String message;
+
+        Entry(long sequence, long timeMillis, Level level, String message) {
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.message = message;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // clear() 时的序号，之前的条目视为已清除
+    private volatile long clearedBefore;
+
+    /**
+     * @param capacity 最多保留的条目数，向上取整为 2 的幂
+     */
+    public LogStore(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public Entry append(Level level, String message) {
+        return appendAt(System.currentTimeMillis(), level, message);
+    }
+
+    /**
+     * 以指定时间追加条目，用于恢复日志文件中上次运行的记录。
+     */
+    public Entry appendAt(long timeMillis, Level level, String message) {
+        long sequence = nextSequence.getAndIncrement();
+        Entry entry = new Entry(sequence, timeMillis, level, message);
+        slots.set((int) (sequence & mask), entry);
+        return entry;
+    }
+
+    /**
+     * @return 已写入的条目总数（含已被覆盖的）
+     */
+    public long totalCount() {
+        return nextSequence.get();
+    }
+
+    /**
+     * 按写入顺序返回当前保留的条目，截止到第一个序号已分配但尚未落槽的条目（见 {@link #snapshotSince}）。
+     */
+    public List<Entry> snapshot() {
+        return snapshotSince(0);
+    }
+
+    /**
+     * 返回序号不小于 fromSequence 的条目，用于增量刷新。已被覆盖的序号跳过；
+     * 遇到序号已分配、但并发写入尚未落槽的条目时到此为止，结果始终是连续的前缀，
+     * 调用方从最后一条的下一个序号继续即可在下次取到它，不会漏掉。
+     */
+    public List<Entry> snapshotSince(long fromSequence) {
+        long end = nextSequence.get();
+        long start = Math.max(Math.max(fromSequence, clearedBefore), end - slots.length());
+        List<Entry> result = new ArrayList<>((int) Math.max(0, end - start));
+        for (long seq = start; seq < end; seq++) {
+            Entry entry = slots.get((int) (seq & mask));
+            if (entry == null || entry.sequence < seq) break;
+            if (entry.sequence == seq) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 清除现有条目。只清除调用时已分配序号的槽位，并发写入的新条目不受影响。
+     */
+    public void clear() {
+        long cleared = nextSequence.get();
+        clearedBefore = cleared;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.sequence < cleared) {
+                slots.compareAndSet(i, entry, null);
+            }
+        }
+    }
+
+    /**
+     * 导出为纯文本，格式与原先的日志面板一致：[HH:mm:ss.SSS] [LEVEL] message。
+     */
+    public String toText() {
+        List<Entry> entries = snapshot();
+        StringBuilder sb = new StringBuilder(entries.size() * 96);
+        for (Entry entry : entries) {
+            LogFormat.appendEntry(sb, entry);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.wewebviewwrapper.core;
+
+/**
+ * 按文件扩展名推断 MIME 类型（扩展名不区分大小写），用于未打包资源索引时的回退路径及 404 统计分类。
+ * 扩展名的小写 ASCII 字节打包为 long 后经乘法哈希映射到 64 槽的完美哈希表，查找不创建任何对象。
+ * 新增扩展名若与已有槽位冲突，类初始化会直接失败，此时需更换 HASH_MULTIPLIER。
+ */
+public final class MimeTypes {
+
+    public static final String DEFAULT = "application/octet-stream";
+
+    private static final int MAX_EXTENSION_LENGTH = 8;
+    private static final int TABLE_BITS = 6;
+    private static final long HASH_MULTIPLIER = 0x301850c5a38fd547L;
+
+    private static final long[] KEYS = new long[1 << TABLE_BITS];
+    private static final String[] TYPES = new String[1 << TABLE_BITS];
+
+    static {
+        // 基础类型
+        register("html", "text/html");
+        register("htm", "text/html");
+        register("css", "text/css");
+        register("js", "application/javascript");
+        register("mjs", "application/javascript");
+        register("json", "application/json");
+        // 图片
+        register("png", "image/png");
+        register("jpg", "image/jpeg");
+        register("jpeg", "image/jpeg");
+        register("gif", "image/gif");
+        register("webp", "image/webp");
+        register("avif", "image/avif");
+        register("svg", "image/svg+xml");
+        register("ico", "image/x-icon");
+        // WebAssembly
+        register("wasm", "application/wasm");
+        // 字体
+        register("woff", "font/woff");
+        register("woff2", "font/woff2");
+        register("ttf", "font/ttf");
+        register("otf", "font/otf");
+        // 媒体
+        register("mp3", "audio/mpeg");
+        register("mp4", "video/mp4");
+        register("wav", "audio/wav");
+        register("webm", "video/webm");
+        // 其他
+        register("txt", "text/plain");
+        register("xml", "application/xml");
+    }
+
+    private MimeTypes() {
+    }
+
+    private static void register(String extension, String mimeType) {
+        long key = pack(extension, 0, extension.length());
+        int slot = slot(key);
+        if (TYPES[slot] != null) {
+            throw new IllegalStateException("MIME table collision: " + extension);
+        }
+        KEYS[slot] = key;
+        TYPES[slot] = mimeType;
+    }
+
+    /**
+     * @return 路径扩展名对应的 MIME 类型，未知扩展名返回 application/octet-stream
+     */
+    public static String forPath(String path) {
+        return forPath(path, 0, path.length());
+    }
+
+    /**
+     * 在 s 的 [start, end) 区间上查找最后一个路径段的扩展名，不创建子串。
+     */
+    public static String forPath(String s, int start, int end) {
+        int dot = -1;
+        for (int i = end - 1; i > start; i--) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                dot = i;
+                break;
+            }
+            if (c == '/') break;
+        }
+        if (dot < 0 || end - dot - 1 > MAX_EXTENSION_LENGTH) return DEFAULT;
+        long key = pack(s, dot + 1, end);
+        if (key == 0) return DEFAULT;
+        int slot = slot(key);
+        return KEYS[slot] == key ? TYPES[slot] : DEFAULT;
+    }
+
+    /**
+     * 将扩展名按小写 ASCII 逐字节打包，含非 ASCII 字母数字的扩展名返回 0。
+     */
+    private static long pack(String s, int start, int end) {
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                return 0;
+            }
+            key = (key << 8) | c;
+        }
+        return key;
+    }
+
+    private static int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> (64 - TABLE_BITS));
+    }
+}
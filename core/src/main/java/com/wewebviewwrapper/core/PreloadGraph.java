@@ -0,0 +1,253 @@
+package com.wewebviewwrapper.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 每个入口 HTML 的关键子资源图：页面中的 &lt;script src&gt;、样式表与 preload / modulepreload 链接，
+ * 以及这些 JS / CSS 经静态 import 与 @import 传递引用的文件。构建期由 {@link #scan(File)} 生成
+ * （见 app/web-assets.gradle 中的 generatePreloadGraph 任务与 {@link BundleTool}），
+ * 运行时主框架请求入口 HTML 时据此提前读取子资源（见 {@link AssetPreloader}）。
+ * <p>
+ * 文件格式：首行为头部，其后每行一个入口，入口路径与各子资源路径以制表符分隔，子资源按页面中出现的顺序排列。
+ * 动态 import() 与 nomodule 脚本不计入：它们不在首次渲染的关键路径上。
+ */
+public final class PreloadGraph {
+
+    static final String HEADER = "# wewebview-preload-graph v1";
+
+    /** 不含任何入口的空图，资源未生成子资源图时使用。 */
+    public static final PreloadGraph EMPTY = new PreloadGraph(new HashMap<>());
+
+    private static final String[] NONE = new String[0];
+
+    private static final Pattern TAG = Pattern.compile("<(script|link)\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([a-zA-Z_:][-a-zA-Z0-9_:.]*)(?:\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+)))?");
+    private static final Pattern JS_IMPORT = Pattern.compile(
+            "(?:^|[;}\\s])(?:import|export)\\s*(?:[\\w$*{}\\s,]+?\\s*from\\s*)?[\"']([^\"'\\r\\n]+)[\"']");
+    private static final Pattern CSS_IMPORT = Pattern.compile(
+            "@import\\s+(?:url\\(\\s*)?[\"']?([^\"')\\s;]+)", Pattern.CASE_INSENSITIVE);
+
+    private final Map<String, String[]> entries;
+
+    private PreloadGraph(Map<String, String[]> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @param path 入口 HTML 相对于资源根目录的路径
+     * @return 该入口的关键子资源路径，不是入口时返回空数组
+     */
+    public String[] get(String path) {
+        String[] resources = entries.get(path);
+        return resources != null ? resources : NONE;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 从子资源图文件流中解析，调用方负责关闭流。
+     */
+    public static PreloadGraph load(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 16 * 1024);
+        String line = reader.readLine();
+        if (!HEADER.equals(line)) {
+            throw new IOException("Unsupported preload graph header: " + line);
+        }
+        Map<String, String[]> entries = new HashMap<>();
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+            String[] fields = line.split("\t");
+            if (fields.length > 1) {
+                entries.put(fields[0], Arrays.copyOfRange(fields, 1, fields.length));
+            }
+        }
+        return new PreloadGraph(entries);
+    }
+
+    public void write(Writer out) throws IOException {
+        out.write(HEADER + "\n");
+        for (Map.Entry<String, String[]> entry : new TreeMap<>(entries).entrySet()) {
+            out.write(entry.getKey());
+            for (String resource : entry.getValue()) {
+                out.write('\t');
+                out.write(resource);
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * 扫描资源根目录下的全部 HTML，生成子资源图。只记录存在于根目录中的同源文件。
+     */
+    public static PreloadGraph scan(File root) throws IOException {
+        List<String> pages = new ArrayList<>();
+        collectPages(root, "", pages);
+        Map<String, String[]> entries = new HashMap<>();
+        for (String page : pages) {
+            Set<String> resources = new LinkedHashSet<>();
+            Deque<String> pending = new ArrayDeque<>();
+            for (String reference : pageReferences(read(root, page))) {
+                addResource(root, page, reference, resources, pending);
+            }
+            while (!pending.isEmpty()) {
+                String resource = pending.poll();
+                String extension = extensionOf(resource);
+                Pattern imports = extension.equals("css") ? CSS_IMPORT
+                        : extension.equals("js") || extension.equals("mjs") ? JS_IMPORT : null;
+                if (imports == null) continue;
+                Matcher m = imports.matcher(read(root, resource));
+                while (m.find()) {
+                    String specifier = m.group(1);
+                    // JS 的裸模块名（如 "react"）已由打包工具内联，只跟随相对与绝对路径
+                    if (imports == CSS_IMPORT || specifier.startsWith("/") || specifier.startsWith(".")) {
+                        addResource(root, resource, specifier, resources, pending);
+                    }
+                }
+            }
+            resources.remove(page);
+            if (!resources.isEmpty()) {
+                entries.put(page, resources.toArray(NONE));
+            }
+        }
+        return new PreloadGraph(entries);
+    }
+
+    private static void addResource(File root, String from, String reference, Set<String> resources,
+                                    Deque<String> pending) {
+        String path = resolve(from, reference);
+        if (path != null && new File(root, path).isFile() && resources.add(path)) {
+            pending.add(path);
+        }
+    }
+
+    /**
+     * @return 页面中按出现顺序排列的脚本、样式表与预加载链接地址
+     */
+    private static List<String> pageReferences(String html) {
+        List<String> references = new ArrayList<>();
+        Matcher tag = TAG.matcher(html);
+        while (tag.find()) {
+            Map<String, String> attributes = new HashMap<>();
+            Matcher m = ATTRIBUTE.matcher(tag.group(2));
+            while (m.find()) {
+                String value = m.group(2) != null ? m.group(2) : m.group(3) != null ? m.group(3) : m.group(4);
+                attributes.put(m.group(1).toLowerCase(Locale.ROOT), value != null ? value.trim() : "");
+            }
+            if (tag.group(1).equalsIgnoreCase("script")) {
+                if (attributes.get("src") != null && !attributes.containsKey("nomodule")) {
+                    references.add(attributes.get("src"));
+                }
+            } else if (attributes.get("href") != null && attributes.get("rel") != null) {
+                for (String rel : attributes.get("rel").toLowerCase(Locale.ROOT).split("\\s+")) {
+                    if (rel.equals("stylesheet") || rel.equals("preload") || rel.equals("modulepreload")) {
+                        references.add(attributes.get("href"));
+                        break;
+                    }
+                }
+            }
+        }
+        return references;
+    }
+
+    /**
+     * 将 from 中引用的地址解析为相对于资源根目录的规范路径。
+     * @return 解析结果；外部地址（带协议或 //）、越出根目录或格式非法时返回 null
+     */
+    static String resolve(String from, String reference) {
+        int end = reference.length();
+        int query = reference.indexOf('?');
+        if (query >= 0) end = query;
+        int fragment = reference.indexOf('#');
+        if (fragment >= 0 && fragment < end) end = fragment;
+        String ref = reference.substring(0, end);
+        int colon = ref.indexOf(':');
+        int firstSlash = ref.indexOf('/');
+        boolean hasScheme = colon >= 0 && (firstSlash < 0 || colon < firstSlash);
+        if (ref.isEmpty() || ref.startsWith("//") || hasScheme) {
+            return null;
+        }
+        List<String> segments = new ArrayList<>();
+        if (!ref.startsWith("/")) {
+            int slash = from.lastIndexOf('/');
+            if (slash > 0) segments.addAll(Arrays.asList(from.substring(0, slash).split("/")));
+        }
+        for (String segment : ref.split("/")) {
+            if (segment.isEmpty() || segment.equals(".")) continue;
+            if (segment.equals("..")) {
+                if (segments.isEmpty()) return null;
+                segments.remove(segments.size() - 1);
+            } else {
+                segments.add(segment);
+            }
+        }
+        if (segments.isEmpty()) return null;
+        String joined = String.join("/", segments);
+        return AssetResolver.canonicalize(joined, 0, joined.length());
+    }
+
+    private static void collectPages(File dir, String prefix, List<String> pages) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        Arrays.sort(children);
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                collectPages(child, path + "/", pages);
+            } else if (extensionOf(path).equals("html") || extensionOf(path).equals("htm")) {
+                pages.add(path);
+            }
+        }
+    }
+
+    private static String extensionOf(String path) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        return dot > slash ? path.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String read(File root, String path) throws IOException {
+        return new String(Files.readAllBytes(new File(root, path).toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 供构建脚本调用：PreloadGraph &lt;资源根目录&gt; &lt;输出文件&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PreloadGraph <assetRoot> <outputFile>");
+            System.exit(2);
+        }
+        PreloadGraph graph = scan(new File(args[0]));
+        File out = new File(args[1]);
+        out.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(out.toPath(), StandardCharsets.UTF_8)) {
+            graph.write(writer);
+        }
+        int resources = 0;
+        for (String[] value : graph.entries.values()) resources += value.length;
+        System.out.println("Preload graph: " + graph.size() + " pages, " + resources + " critical resources -> " + out);
+    }
+}
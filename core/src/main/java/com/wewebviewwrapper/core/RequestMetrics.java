@@ -0,0 +1,285 @@
+package com.wewebviewwrapper.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 资源拦截的运行时指标，按 MIME 大类统计请求数、404、内存缓存命中/未命中、传输字节数，
+ * 以及三段延迟直方图：拦截耗时（shouldIntercept 返回前）、首字节时间与完整传输时间。
+ * 首字节与完整传输通过包装响应流测量：WebView 在拦截返回后才在自己的线程上读取数据。
+ * 另记录首次渲染时间：从拦截到主框架导航请求，到 WebView 报告新页面首次可见（onPageCommitVisible）；
+ * 以及启动时间（进程启动到首个页面可见），按 WebView 磁盘缓存是否保留分为冷启动与热启动。
+ * 计数全部为原子变量，不加锁。
+ */
+public final class RequestMetrics {
+
+    public enum Source {
+        PAGE, SERVICE_WORKER
+    }
+
+    public enum MimeClass {
+        DOCUMENT, SCRIPT, STYLE, IMAGE, FONT, MEDIA, DATA, OTHER;
+
+        public static MimeClass of(String mimeType) {
+            if (mimeType == null) return OTHER;
+            if (mimeType.equals("text/html")) return DOCUMENT;
+            if (mimeType.equals("application/javascript") || mimeType.equals("text/javascript")) return SCRIPT;
+            if (mimeType.equals("text/css")) return STYLE;
+            if (mimeType.startsWith("image/")) return IMAGE;
+            if (mimeType.startsWith("font/")) return FONT;
+            if (mimeType.startsWith("audio/") || mimeType.startsWith("video/")) return MEDIA;
+            if (mimeType.startsWith("application/") || mimeType.startsWith("text/")) return DATA;
+            return OTHER;
+        }
+    }
+
+    public static final class ClassStats {
+        public final AtomicLong requests = new AtomicLong();
+        public final AtomicLong notFound = new AtomicLong();
+        public final AtomicLong cacheHits = new AtomicLong();
+        public final AtomicLong cacheMisses = new AtomicLong();
+        public final AtomicLong bytes = new AtomicLong();
+        public final LatencyHistogram intercept = new LatencyHistogram();
+        public final LatencyHistogram firstByte = new LatencyHistogram();
+        public final LatencyHistogram complete = new LatencyHistogram();
+
+        void reset() {
+            requests.set(0);
+            notFound.set(0);
+            cacheHits.set(0);
+            cacheMisses.set(0);
+            bytes.set(0);
+            intercept.reset();
+            firstByte.reset();
+            complete.reset();
+        }
+    }
+
+    private final ClassStats[] classes = new ClassStats[MimeClass.values().length];
+    private final AtomicLongArray sourceRequests = new AtomicLongArray(Source.values().length);
+    private final LatencyHistogram firstRender = new LatencyHistogram();
+    private final LatencyHistogram coldStart = new LatencyHistogram();
+    private final LatencyHistogram warmStart = new LatencyHistogram();
+    private volatile long navigationStartNanos;
+    private volatile long sinceMillis = System.currentTimeMillis();
+
+    public RequestMetrics() {
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ClassStats();
+        }
+    }
+
+    public ClassStats stats(String mimeType) {
+        return classes[MimeClass.of(mimeType).ordinal()];
+    }
+
+    public void recordSource(Source source) {
+        sourceRequests.incrementAndGet(source.ordinal());
+    }
+
+    public void recordNotFound(ClassStats stats, long startNanos) {
+        stats.requests.incrementAndGet();
+        stats.notFound.incrementAndGet();
+        stats.intercept.record(elapsedMicros(startNanos));
+    }
+
+    /**
+     * 记录拦截耗时，并返回统计首字节时间、传输耗时与字节数的包装流。
+     */
+    public InputStream recordServed(ClassStats stats, long startNanos, InputStream data) {
+        stats.requests.incrementAndGet();
+        stats.intercept.record(elapsedMicros(startNanos));
+        return data != null ? new MeteredInputStream(data, stats, startNanos) : null;
+    }
+
+    /**
+     * 记录主框架导航请求的拦截时刻，作为首次渲染时间的起点。
+     */
+    public void recordNavigation(long startNanos) {
+        navigationStartNanos = startNanos;
+    }
+
+    /**
+     * 在新页面首次可见时调用，记录自导航请求起的耗时。
+     * @return 首次渲染时间（微秒）；没有待统计的导航（如非拦截的页面）时返回 -1
+     */
+    public long recordFirstRender() {
+        long start = navigationStartNanos;
+        if (start == 0) return -1;
+        navigationStartNanos = 0;
+        long micros = elapsedMicros(start);
+        firstRender.record(micros);
+        return micros;
+    }
+
+    /**
+     * @param warm 启动时 WebView 磁盘缓存是否保留了上次运行的条目
+     */
+    public void recordStartup(boolean warm, long micros) {
+        (warm ? warmStart : coldStart).record(micros);
+    }
+
+    public void reset() {
+        firstRender.reset();
+        coldStart.reset();
+        warmStart.reset();
+        for (ClassStats stats : classes) {
+            stats.reset();
+        }
+        for (int i = 0; i < sourceRequests.length(); i++) {
+            sourceRequests.set(i, 0);
+        }
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * 供设置面板显示的多行摘要，只列出有请求的类别。
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("page=").append(sourceRequests.get(Source.PAGE.ordinal()))
+                .append(" sw=").append(sourceRequests.get(Source.SERVICE_WORKER.ordinal()));
+        if (firstRender.count() > 0) {
+            sb.append("\nfirst render n=").append(firstRender.count())
+                    .append(" p50/p99 ").append(millis(firstRender.percentile(0.5)))
+                    .append('/').append(millis(firstRender.percentile(0.99))).append("ms");
+        }
+        appendStartup(sb, "cold", coldStart);
+        appendStartup(sb, "warm", warmStart);
+        for (MimeClass mimeClass : MimeClass.values()) {
+            ClassStats stats = classes[mimeClass.ordinal()];
+            long requests = stats.requests.get();
+            if (requests == 0) continue;
+            sb.append('\n').append(mimeClass.name().toLowerCase(Locale.ROOT))
+                    .append(": n=").append(requests)
+                    .append(" 404=").append(stats.notFound.get())
+                    .append(" hit=").append(stats.cacheHits.get()).append('/').append(stats.cacheHits.get() + stats.cacheMisses.get())
+                    .append(' ').append(stats.bytes.get() / 1024).append("KB")
+                    .append("\n  intercept p50/p99 ").append(millis(stats.intercept.percentile(0.5)))
+                    .append('/').append(millis(stats.intercept.percentile(0.99)))
+                    .append("ms  ttfb ").append(millis(stats.firstByte.percentile(0.5)))
+                    .append('/').append(millis(stats.firstByte.percentile(0.99)))
+                    .append("ms  total ").append(millis(stats.complete.percentile(0.5)))
+                    .append('/').append(millis(stats.complete.percentile(0.99))).append("ms");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 导出 JSON，便于在不同版本、不同设备之间对比。延迟单位为微秒。
+     */
+    public String toJson(String appVersion) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("{\"appVersion\":\"").append(appVersion).append('"')
+                .append(",\"sinceMillis\":").append(sinceMillis)
+                .append(",\"exportedMillis\":").append(System.currentTimeMillis())
+                .append(",\"sources\":{\"page\":").append(sourceRequests.get(Source.PAGE.ordinal()))
+                .append(",\"serviceWorker\":").append(sourceRequests.get(Source.SERVICE_WORKER.ordinal()))
+                .append('}');
+        appendHistogram(sb, "firstRenderUs", firstRender);
+        appendHistogram(sb, "coldStartUs", coldStart);
+        appendHistogram(sb, "warmStartUs", warmStart);
+        sb.append(",\"classes\":{");
+        MimeClass[] mimeClasses = MimeClass.values();
+        for (int i = 0; i < mimeClasses.length; i++) {
+            ClassStats stats = classes[i];
+            if (i > 0) sb.append(',');
+            sb.append('"').append(mimeClasses[i].name().toLowerCase(Locale.ROOT)).append("\":{")
+                    .append("\"requests\":").append(stats.requests.get())
+                    .append(",\"notFound\":").append(stats.notFound.get())
+                    .append(",\"cacheHits\":").append(stats.cacheHits.get())
+                    .append(",\"cacheMisses\":").append(stats.cacheMisses.get())
+                    .append(",\"bytes\":").append(stats.bytes.get());
+            appendHistogram(sb, "interceptUs", stats.intercept);
+            appendHistogram(sb, "firstByteUs", stats.firstByte);
+            appendHistogram(sb, "completeUs", stats.complete);
+            sb.append('}');
+        }
+        return sb.append("}}").toString();
+    }
+
+    private static void appendStartup(StringBuilder sb, String name, LatencyHistogram histogram) {
+        if (histogram.count() == 0) return;
+        sb.append('\n').append(name).append(" start n=").append(histogram.count())
+                .append(" mean ").append(millis(histogram.mean()))
+                .append("ms max ").append(millis(histogram.max())).append("ms");
+    }
+
+    private static void appendHistogram(StringBuilder sb, String name, LatencyHistogram histogram) {
+        sb.append(",\"").append(name).append("\":{\"count\":").append(histogram.count())
+                .append(",\"mean\":").append(histogram.mean())
+                .append(",\"p50\":").append(histogram.percentile(0.5))
+                .append(",\"p90\":").append(histogram.percentile(0.9))
+                .append(",\"p99\":").append(histogram.percentile(0.99))
+                .append(",\"max\":").append(histogram.max()).append('}');
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f", micros / 1000.0);
+    }
+
+    private static long elapsedMicros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    /**
+     * 统计 WebView 实际读取情况的响应流：首次读到数据时记录首字节时间，读到末尾或关闭时记录总耗时与字节数。
+     * 只由 WebView 的单个读取线程使用，状态无需同步。
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+        private final ClassStats stats;
+        private final long startNanos;
+        private long bytesRead;
+        private boolean firstByteRecorded;
+        private boolean finished;
+
+        MeteredInputStream(InputStream in, ClassStats stats, long startNanos) {
+            super(in);
+            this.stats = stats;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            onRead(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            onRead(n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            super.close();
+        }
+
+        private void onRead(int n) {
+            if (n > 0) {
+                if (!firstByteRecorded) {
+                    firstByteRecorded = true;
+                    stats.firstByte.record(elapsedMicros(startNanos));
+                }
+                bytesRead += n;
+            } else if (n < 0) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (finished) return;
+            finished = true;
+            stats.bytes.addAndGet(bytesRead);
+            stats.complete.record(elapsedMicros(startNanos));
+        }
+    }
+}
@@ -0,0 +1,862 @@
+package com.wewebviewwrapper.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 文档提供器的文件名与 MIME 类型索引，支持按名称前缀与子串（忽略大小写）以及 MIME 类型搜索。
+ * <p>
+ * 索引分两层：压缩层将全部名称以 '\0' 连接成一个字符串（另存一份逐字符转为小写的副本），
+ * 子串搜索即在其上调用 String.indexOf，前缀搜索在按名称排序的项号数组上二分查找，几十万个文件的搜索在毫秒级完成；
+ * 增量层记录此后新增与删除的路径，超过阈值或刷新后合并为新的压缩层并写入索引文件。
+ * 压缩层同时记录每个目录的修改时间：{@link #refresh} 在后台逐个比较目录的修改时间，只重新列举发生变化的目录
+ * （首次运行或索引文件无效时完整遍历一次），{@link #childChanged} 在文档提供器修改文件或目录监听报告变化时更新单个子项。
+ * 内存占用约为名称总长的两倍字节数（名称为 ASCII 时），另加每项 11 字节。
+ */
+public final class SearchIndex {
+
+    public static final String FILE_NAME = "search-index.bin";
+    // 与 DocumentsContract.Document.MIME_TYPE_DIR 相同
+    public static final String DIRECTORY_MIME = "vnd.android.document/directory";
+
+    static final int MAGIC = 0x57534958; // "WSIX"
+    static final int VERSION = 1;
+    private static final byte FLAG_DIRECTORY = 1;
+    private static final char SEPARATOR = '\0';
+    // 增量层超过此项数或压缩层的 1/8 时合并
+    private static final int COMPACT_THRESHOLD = 4096;
+
+    /**
+     * 一个搜索结果。
+     */
+    public static final class Hit {
+        /** 相对根目录的路径（以 '/' 分隔），即文档 ID */
+        public final String path;
+        public final String name;
+        public final boolean directory;
+        public final String mimeType;
+
+        Hit(String path, String name, boolean directory, String mimeType) {
+            this.path = path;
+            this.name = name;
+            this.directory = directory;
+            this.mimeType = mimeType;
+        }
+
+        @Override
+        public String toString() {
+            return path + (directory ? "/" : "") + " (" + mimeType + ")";
+        }
+    }
+
+    /**
+     * 增量层中的一项，也是构建压缩层时的中间形式。
+     */
+    private static final class Item {
+        final String parent;
+        final String name;
+        final boolean directory;
+        final String mimeType;
+
+        Item(String parent, String name, boolean directory, String mimeType) {
+            this.parent = parent;
+            this.name = name;
+            this.directory = directory;
+            this.mimeType = mimeType;
+        }
+    }
+
+    private static final class DirData {
+        final long modified;
+        final List<Item> items = new ArrayList<>();
+
+        DirData(long modified) {
+            this.modified = modified;
+        }
+    }
+
+    /**
+     * 不可变的压缩层。各项按所在目录分组（目录按路径排序），组内按名称排序。
+     */
+    private static final class Segment {
+        final String[] dirs;
+        final long[] dirModified;
+        // 目录 d 的子项为 [dirStart[d], dirStart[d + 1])
+        final int[] dirStart;
+        final Map<String, Integer> dirIndex;
+        // 每项名称前有一个 SEPARATOR
+        final String names;
+        final String folded;
+        // 第 e 项名称的起始位置；offsets[count] 为 names.length() + 1
+        final int[] offsets;
+        final byte[] flags;
+        final short[] mimes;
+        final String[] mimeTable;
+        // 按小写名称排序的项号
+        final int[] byName;
+
+        Segment(String[] dirs, long[] dirModified, int[] dirStart, String names, byte[] flags,
+                short[] mimes, String[] mimeTable, int[] byName) throws IOException {
+            this.dirs = dirs;
+            this.dirModified = dirModified;
+            this.dirStart = dirStart;
+            this.names = names;
+            this.folded = fold(names);
+            this.flags = flags;
+            this.mimes = mimes;
+            this.mimeTable = mimeTable;
+            this.offsets = new int[flags.length + 1];
+            int e = 0;
+            for (int i = 0; i < names.length(); i++) {
+                if (names.charAt(i) != SEPARATOR) continue;
+                if (e == flags.length) throw new IOException("Search index has more names than entries");
+                offsets[e++] = i + 1;
+            }
+            if (e != flags.length) throw new IOException("Search index has " + e + " names for " + flags.length + " entries");
+            offsets[e] = names.length() + 1;
+            this.byName = byName != null ? byName : sortByName();
+            this.dirIndex = new HashMap<>(dirs.length * 2);
+            for (int d = 0; d < dirs.length; d++) {
+                dirIndex.put(dirs[d], d);
+            }
+        }
+
+        static Segment build(TreeMap<String, DirData> tree) throws IOException {
+            int dirCount = tree.size();
+            String[] dirs = new String[dirCount];
+            long[] dirModified = new long[dirCount];
+            int[] dirStart = new int[dirCount + 1];
+            int count = 0;
+            for (DirData data : tree.values()) {
+                count += data.items.size();
+            }
+            StringBuilder names = new StringBuilder(count * 16);
+            byte[] flags = new byte[count];
+            short[] mimes = new short[count];
+            Map<String, Integer> mimeCodes = new HashMap<>();
+            List<String> mimeTable = new ArrayList<>();
+            int d = 0;
+            int e = 0;
+            for (Map.Entry<String, DirData> dir : tree.entrySet()) {
+                dirs[d] = dir.getKey();
+                dirModified[d] = dir.getValue().modified;
+                dirStart[d] = e;
+                List<Item> items = dir.getValue().items;
+                items.sort((a, b) -> a.name.compareTo(b.name));
+                for (Item item : items) {
+                    names.append(SEPARATOR).append(item.name);
+                    flags[e] = item.directory ? FLAG_DIRECTORY : 0;
+                    Integer code = mimeCodes.get(item.mimeType);
+                    if (code == null) {
+                        code = mimeTable.size();
+                        mimeTable.add(item.mimeType);
+                        mimeCodes.put(item.mimeType, code);
+                    }
+                    mimes[e] = (short) (int) code;
+                    e++;
+                }
+                d++;
+            }
+            dirStart[dirCount] = count;
+            return new Segment(dirs, dirModified, dirStart, names.toString(), flags, mimes,
+                    mimeTable.toArray(new String[0]), null);
+        }
+
+        int count() {
+            return flags.length;
+        }
+
+        String name(int e) {
+            return names.substring(offsets[e], offsets[e + 1] - 1);
+        }
+
+        int dirOf(int e) {
+            // 最后一个起点不大于 e 的目录（空目录与下一个目录起点相同）
+            int lo = 0;
+            int hi = dirs.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (dirStart[mid] <= e) lo = mid; else hi = mid - 1;
+            }
+            return lo;
+        }
+
+        String path(int e) {
+            return join(dirs[dirOf(e)], name(e));
+        }
+
+        int entryAt(int position) {
+            int lo = 0;
+            int hi = count() - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (offsets[mid] <= position) lo = mid; else hi = mid - 1;
+            }
+            return lo;
+        }
+
+        /**
+         * @return parent 目录下名为 name 的项号，不存在时返回 -1
+         */
+        int find(String parent, String name) {
+            Integer d = dirIndex.get(parent);
+            if (d == null) return -1;
+            int lo = dirStart[d];
+            int hi = dirStart[d + 1] - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int c = name(mid).compareTo(name);
+                if (c == 0) return mid;
+                if (c < 0) lo = mid + 1; else hi = mid - 1;
+            }
+            return -1;
+        }
+
+        /**
+         * 比较第 e 项的小写名称与 key。
+         */
+        int compareFolded(int e, String key) {
+            int start = offsets[e];
+            int length = offsets[e + 1] - 1 - start;
+            int n = Math.min(length, key.length());
+            for (int i = 0; i < n; i++) {
+                int c = folded.charAt(start + i) - key.charAt(i);
+                if (c != 0) return c;
+            }
+            return length - key.length();
+        }
+
+        /**
+         * @return byName 中第一个小写名称不小于 key 的位置
+         */
+        int lowerBound(String key) {
+            int lo = 0;
+            int hi = byName.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compareFolded(byName[mid], key) < 0) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private int[] sortByName() {
+            Integer[] order = new Integer[count()];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int aStart = offsets[a];
+                int aLength = offsets[a + 1] - 1 - aStart;
+                int bStart = offsets[b];
+                int bLength = offsets[b + 1] - 1 - bStart;
+                int n = Math.min(aLength, bLength);
+                for (int i = 0; i < n; i++) {
+                    int c = folded.charAt(aStart + i) - folded.charAt(bStart + i);
+                    if (c != 0) return c;
+                }
+                return aLength - bLength;
+            });
+            int[] result = new int[order.length];
+            for (int i = 0; i < result.length; i++) result[i] = order[i];
+            return result;
+        }
+    }
+
+    private final Path root;
+    private final File file;
+    private final Predicate<String> exclude;
+    private final Function<String, String> mimeTypes;
+    private final Executor executor;
+    private final Runnable onChanged;
+
+    // 以下字段由 this 保护；segment 为 null 表示尚未加载或构建
+    private Segment segment;
+    private final Map<String, Item> added = new HashMap<>();
+    // 从压缩层删除的路径，目录的删除同时覆盖其下所有项
+    private final Set<String> removed = new HashSet<>();
+    // 增量层中新增或修改时间变化的目录
+    private final Map<String, Long> modifiedDirs = new HashMap<>();
+    private boolean dirty;
+    private boolean refreshing;
+    private long lastRefreshMillis;
+
+    /**
+     * @param root 被索引的根目录
+     * @param file 索引文件，应位于 root 之外
+     * @param exclude 不索引的相对路径（其下的子项也不索引），可为 null
+     * @param mimeTypes 由文件名得到 MIME 类型
+     * @param executor 执行遍历、更新与写入索引文件的后台线程
+     * @param onChanged 索引内容变化后在后台线程调用，可为 null
+     */
+    public SearchIndex(Path root, File file, Predicate<String> exclude, Function<String, String> mimeTypes,
+                       Executor executor, Runnable onChanged) {
+        this.root = root;
+        this.file = file;
+        this.exclude = exclude != null ? exclude : path -> false;
+        this.mimeTypes = mimeTypes;
+        this.executor = executor;
+        this.onChanged = onChanged;
+    }
+
+    /**
+     * @return 索引已加载或构建完成，可以搜索
+     */
+    public synchronized boolean isReady() {
+        return segment != null;
+    }
+
+    public synchronized int size() {
+        if (segment == null) return 0;
+        return segment.count() + added.size();
+    }
+
+    /**
+     * 在后台加载索引文件（首次调用时）并与文件系统同步，距上次完成不足 minIntervalMillis 或已在进行时不做处理。
+     */
+    public void refresh(long minIntervalMillis) {
+        synchronized (this) {
+            if (refreshing) return;
+            if (segment != null && System.currentTimeMillis() - lastRefreshMillis < minIntervalMillis) return;
+            refreshing = true;
+        }
+        executor.execute(() -> {
+            boolean changed = false;
+            try {
+                changed = runRefresh();
+            } catch (IOException | RuntimeException e) {
+                // 根目录不可读等，保留现有索引，下次刷新时重试
+            } finally {
+                synchronized (this) {
+                    refreshing = false;
+                    lastRefreshMillis = System.currentTimeMillis();
+                }
+            }
+            if (changed && onChanged != null) onChanged.run();
+        });
+    }
+
+    /**
+     * 目录 dir 的子项 name 被创建、删除或移动后在后台更新索引：存在且未被索引时加入（目录连同其下所有项），
+     * 不存在时移除。dir 不在根目录下或索引尚未就绪时不做处理（之后的刷新会发现这一变化）。
+     */
+    public void childChanged(Path dir, String name) {
+        String parent = relativize(dir);
+        if (parent == null) return;
+        String path = join(parent, name);
+        if (exclude.test(path) || !isReady()) return;
+        executor.execute(() -> {
+            synchronized (this) {
+                if (segment == null) return;
+            }
+            boolean changed;
+            Path child = dir.resolve(name);
+            try {
+                if (Files.exists(child, LinkOption.NOFOLLOW_LINKS)) {
+                    changed = !contains(parent, name) && addTree(child);
+                } else {
+                    changed = remove(path);
+                }
+                if (compactIfNeeded()) save();
+            } catch (IOException | RuntimeException e) {
+                return;
+            }
+            if (changed && onChanged != null) onChanged.run();
+        });
+    }
+
+    /**
+     * 按名称搜索：先返回名称以 query 开头的项（按名称排序），再返回名称包含 query 的其余项，均忽略大小写。
+     * @param query 名称片段，为空时只按 MIME 类型筛选
+     * @param mimeTypes MIME 类型，可含 "image/*" 形式的通配；为 null 或空时不筛选
+     * @param limit 最多返回的项数
+     * @return 索引尚未就绪时为空列表
+     */
+    public synchronized List<Hit> search(String query, String[] mimeTypes, int limit) {
+        Segment s = segment;
+        if (s == null || limit <= 0) return Collections.emptyList();
+        String key = fold(query != null ? query.trim().replace(String.valueOf(SEPARATOR), "") : "");
+        boolean[] mimeAllowed = mimeFilter(s.mimeTable, mimeTypes);
+        List<Hit> hits = new ArrayList<>(Math.min(limit, 64));
+        if (key.isEmpty()) {
+            for (int e = 0; e < s.count() && hits.size() < limit; e++) {
+                addHit(s, e, mimeAllowed, hits);
+            }
+        } else {
+            for (int i = s.lowerBound(key); i < s.byName.length && hits.size() < limit; i++) {
+                int e = s.byName[i];
+                if (!s.folded.startsWith(key, s.offsets[e])) break;
+                addHit(s, e, mimeAllowed, hits);
+            }
+            int from = 0;
+            while (hits.size() < limit) {
+                int position = s.folded.indexOf(key, from);
+                if (position < 0) break;
+                int e = s.entryAt(position);
+                // 位于名称开头的已作为前缀匹配返回
+                if (position != s.offsets[e]) addHit(s, e, mimeAllowed, hits);
+                from = s.offsets[e + 1];
+            }
+        }
+        for (Item item : added.values()) {
+            if (hits.size() >= limit) break;
+            if (!key.isEmpty() && !fold(item.name).contains(key)) continue;
+            if (mimeTypes != null && mimeTypes.length > 0 && !matchesMime(item.mimeType, mimeTypes)) continue;
+            hits.add(new Hit(join(item.parent, item.name), item.name, item.directory, item.mimeType));
+        }
+        return hits;
+    }
+
+    private void addHit(Segment s, int e, boolean[] mimeAllowed, List<Hit> hits) {
+        if (mimeAllowed != null && !mimeAllowed[s.mimes[e]]) return;
+        String path = s.path(e);
+        if (isRemoved(path)) return;
+        hits.add(new Hit(path, s.name(e), (s.flags[e] & FLAG_DIRECTORY) != 0, s.mimeTable[s.mimes[e]]));
+    }
+
+    private static boolean[] mimeFilter(String[] mimeTable, String[] mimeTypes) {
+        if (mimeTypes == null || mimeTypes.length == 0) return null;
+        boolean[] allowed = new boolean[mimeTable.length];
+        for (int i = 0; i < mimeTable.length; i++) {
+            allowed[i] = matchesMime(mimeTable[i], mimeTypes);
+        }
+        return allowed;
+    }
+
+    static boolean matchesMime(String mimeType, String[] patterns) {
+        for (String pattern : patterns) {
+            if (pattern.equals("*/*") || pattern.equalsIgnoreCase(mimeType)) return true;
+            if (pattern.endsWith("/*") && mimeType.regionMatches(true, 0, pattern, 0, pattern.length() - 1)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 首次刷新时加载索引文件，文件不存在或无效时完整遍历根目录；随后与文件系统同步，有变化时合并并写入索引文件。
+     * @return 索引内容发生变化（包括首次就绪）
+     */
+    private boolean runRefresh() throws IOException {
+        boolean ready;
+        synchronized (this) {
+            ready = segment != null;
+        }
+        if (!ready) {
+            Segment loaded = load();
+            if (loaded == null) {
+                Segment built = build();
+                synchronized (this) {
+                    segment = built;
+                }
+                save();
+                return true;
+            }
+            synchronized (this) {
+                segment = loaded;
+            }
+        }
+        boolean changed = reconcile();
+        boolean write;
+        synchronized (this) {
+            write = dirty;
+            if (write) compact();
+        }
+        if (write) save();
+        return changed || !ready;
+    }
+
+    private Segment build() throws IOException {
+        TreeMap<String, DirData> tree = new TreeMap<>();
+        walk(root, new Sink() {
+            @Override
+            public void directory(String path, long modified) {
+                tree.put(path, new DirData(modified));
+            }
+
+            @Override
+            public void entry(String parent, String name, boolean directory) {
+                tree.computeIfAbsent(parent, p -> new DirData(0)).items.add(item(parent, name, directory));
+            }
+        });
+        return Segment.build(tree);
+    }
+
+    /**
+     * 比较每个目录的修改时间，重新列举发生变化的目录，加入新的子项（新目录连同其下所有项）并移除已不存在的子项。
+     */
+    private boolean reconcile() throws IOException {
+        Map<String, Long> dirs = new TreeMap<>();
+        synchronized (this) {
+            Segment s = segment;
+            for (int d = 0; d < s.dirs.length; d++) {
+                if (!isRemoved(s.dirs[d])) dirs.put(s.dirs[d], s.dirModified[d]);
+            }
+            dirs.putAll(modifiedDirs);
+        }
+        boolean changed = false;
+        for (Map.Entry<String, Long> dir : dirs.entrySet()) {
+            String dirPath = dir.getKey();
+            synchronized (this) {
+                if (isRemoved(dirPath)) continue;
+            }
+            Path path = resolve(dirPath);
+            long modified;
+            try {
+                modified = Files.getLastModifiedTime(path).toMillis();
+            } catch (NoSuchFileException e) {
+                if (dirPath.isEmpty()) throw e;
+                changed |= remove(dirPath);
+                continue;
+            }
+            if (modified != dir.getValue()) {
+                changed |= syncDirectory(dirPath, path, modified);
+            }
+        }
+        return changed;
+    }
+
+    private boolean syncDirectory(String dirPath, Path dir, long modified) throws IOException {
+        Set<String> onDisk = new HashSet<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(dir)) {
+            for (Path child : children) {
+                Path fileName = child.getFileName();
+                if (fileName == null) continue;
+                String name = fileName.toString();
+                if (!exclude.test(join(dirPath, name))) onDisk.add(name);
+            }
+        } catch (NoSuchFileException e) {
+            return remove(dirPath);
+        }
+        Set<String> indexed = children(dirPath);
+        boolean changed = false;
+        for (String name : indexed) {
+            if (!onDisk.contains(name)) changed |= remove(join(dirPath, name));
+        }
+        for (String name : onDisk) {
+            if (!indexed.contains(name)) changed |= addTree(dir.resolve(name));
+        }
+        synchronized (this) {
+            modifiedDirs.put(dirPath, modified);
+            dirty = true;
+        }
+        return changed;
+    }
+
+    /**
+     * 将 path（目录时连同其下所有项）加入增量层。
+     */
+    private boolean addTree(Path path) throws IOException {
+        boolean[] changed = {false};
+        walk(path, new Sink() {
+            @Override
+            public void directory(String dirPath, long modified) {
+                synchronized (SearchIndex.this) {
+                    modifiedDirs.put(dirPath, modified);
+                    dirty = true;
+                }
+            }
+
+            @Override
+            public void entry(String parent, String name, boolean directory) {
+                synchronized (SearchIndex.this) {
+                    if (containsLocked(parent, name)) return;
+                    added.put(join(parent, name), item(parent, name, directory));
+                    dirty = true;
+                    changed[0] = true;
+                }
+            }
+        });
+        return changed[0];
+    }
+
+    private interface Sink {
+        void directory(String path, long modified);
+
+        void entry(String parent, String name, boolean directory);
+    }
+
+    /**
+     * 遍历 start（不跟随符号链接）：每个目录报告一次修改时间，start 及其下每一项各报告一次（根目录本身除外）。
+     */
+    private void walk(Path start, Sink sink) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String path = relativize(dir);
+                if (path == null || (!path.isEmpty() && exclude.test(path))) return FileVisitResult.SKIP_SUBTREE;
+                if (!path.isEmpty()) sink.entry(parentOf(path), nameOf(path), true);
+                sink.directory(path, attrs.lastModifiedTime().toMillis());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String path = relativize(file);
+                if (path != null && !path.isEmpty() && !exclude.test(path)) {
+                    sink.entry(parentOf(path), nameOf(path), attrs.isDirectory());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                // 遍历期间被删除或无权访问
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private Item item(String parent, String name, boolean directory) {
+        return new Item(parent, name, directory, directory ? DIRECTORY_MIME : mimeTypes.apply(name));
+    }
+
+    private synchronized boolean contains(String parent, String name) {
+        return containsLocked(parent, name);
+    }
+
+    private boolean containsLocked(String parent, String name) {
+        String path = join(parent, name);
+        if (added.containsKey(path)) return true;
+        return segment.find(parent, name) >= 0 && !isRemoved(path);
+    }
+
+    /**
+     * @return dirPath 目录下已索引的子项名称
+     */
+    private synchronized Set<String> children(String dirPath) {
+        Set<String> names = new HashSet<>();
+        Segment s = segment;
+        Integer d = s.dirIndex.get(dirPath);
+        if (d != null && !isRemoved(dirPath)) {
+            for (int e = s.dirStart[d]; e < s.dirStart[d + 1]; e++) {
+                String name = s.name(e);
+                if (!removed.contains(join(dirPath, name))) names.add(name);
+            }
+        }
+        for (Item item : added.values()) {
+            if (item.parent.equals(dirPath)) names.add(item.name);
+        }
+        return names;
+    }
+
+    /**
+     * 移除 path（目录时连同其下所有项）。
+     */
+    private synchronized boolean remove(String path) {
+        String prefix = path + "/";
+        boolean changed = added.remove(path) != null;
+        changed |= added.keySet().removeIf(key -> key.startsWith(prefix));
+        modifiedDirs.keySet().removeIf(key -> key.equals(path) || key.startsWith(prefix));
+        if (!isRemoved(path) && (segment.find(parentOf(path), nameOf(path)) >= 0 || segment.dirIndex.containsKey(path))) {
+            removed.add(path);
+            changed = true;
+        }
+        dirty |= changed;
+        return changed;
+    }
+
+    /**
+     * @return path 或其上级目录已从压缩层删除
+     */
+    private boolean isRemoved(String path) {
+        if (removed.isEmpty()) return false;
+        for (String p = path; !p.isEmpty(); p = parentOf(p)) {
+            if (removed.contains(p)) return true;
+        }
+        return false;
+    }
+
+    private synchronized boolean compactIfNeeded() throws IOException {
+        int pending = added.size() + removed.size();
+        if (pending < COMPACT_THRESHOLD && pending <= segment.count() / 8) return false;
+        compact();
+        return true;
+    }
+
+    /**
+     * 将增量层合并入新的压缩层。调用方持有 this。
+     */
+    private void compact() throws IOException {
+        Segment s = segment;
+        TreeMap<String, DirData> tree = new TreeMap<>();
+        for (int d = 0; d < s.dirs.length; d++) {
+            String dirPath = s.dirs[d];
+            if (isRemoved(dirPath)) continue;
+            Long modified = modifiedDirs.get(dirPath);
+            DirData data = new DirData(modified != null ? modified : s.dirModified[d]);
+            tree.put(dirPath, data);
+            for (int e = s.dirStart[d]; e < s.dirStart[d + 1]; e++) {
+                String name = s.name(e);
+                if (removed.contains(join(dirPath, name))) continue;
+                data.items.add(new Item(dirPath, name, (s.flags[e] & FLAG_DIRECTORY) != 0, s.mimeTable[s.mimes[e]]));
+            }
+        }
+        for (Map.Entry<String, Long> dir : modifiedDirs.entrySet()) {
+            if (!tree.containsKey(dir.getKey())) tree.put(dir.getKey(), new DirData(dir.getValue()));
+        }
+        for (Item item : added.values()) {
+            // 所在目录的修改时间未知时记为 0，下次刷新时重新列举
+            tree.computeIfAbsent(item.parent, p -> new DirData(0)).items.add(item);
+        }
+        segment = Segment.build(tree);
+        added.clear();
+        removed.clear();
+        modifiedDirs.clear();
+        dirty = false;
+    }
+
+    /**
+     * 写入压缩层：先写临时文件再原子重命名。增量层中尚未合并的变化不写入，下次启动后的刷新会重新发现。
+     */
+    private void save() throws IOException {
+        Segment s;
+        synchronized (this) {
+            s = segment;
+        }
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory: " + dir);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(root.toString());
+            out.writeInt(s.mimeTable.length);
+            for (String mimeType : s.mimeTable) {
+                out.writeUTF(mimeType);
+            }
+            out.writeInt(s.dirs.length);
+            for (int d = 0; d < s.dirs.length; d++) {
+                out.writeUTF(s.dirs[d]);
+                out.writeLong(s.dirModified[d]);
+                out.writeInt(s.dirStart[d]);
+            }
+            int count = s.count();
+            out.writeInt(count);
+            byte[] names = s.names.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(names.length);
+            out.write(names);
+            out.write(s.flags);
+            for (int e = 0; e < count; e++) {
+                out.writeShort(s.mimes[e]);
+            }
+            for (int e = 0; e < count; e++) {
+                out.writeInt(s.byName[e]);
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return 索引文件中的压缩层；文件不存在、格式或版本不符、或属于另一个根目录时返回 null
+     */
+    private Segment load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!root.toString().equals(in.readUTF())) return null;
+            String[] mimeTable = new String[in.readInt()];
+            for (int i = 0; i < mimeTable.length; i++) {
+                mimeTable[i] = in.readUTF();
+            }
+            int dirCount = in.readInt();
+            String[] dirs = new String[dirCount];
+            long[] dirModified = new long[dirCount];
+            int[] dirStart = new int[dirCount + 1];
+            for (int d = 0; d < dirCount; d++) {
+                dirs[d] = in.readUTF();
+                dirModified[d] = in.readLong();
+                dirStart[d] = in.readInt();
+            }
+            int count = in.readInt();
+            dirStart[dirCount] = count;
+            byte[] names = new byte[in.readInt()];
+            in.readFully(names);
+            byte[] flags = new byte[count];
+            in.readFully(flags);
+            short[] mimes = new short[count];
+            for (int e = 0; e < count; e++) {
+                mimes[e] = in.readShort();
+                if (mimes[e] < 0 || mimes[e] >= mimeTable.length) return null;
+            }
+            int[] byName = new int[count];
+            for (int e = 0; e < count; e++) {
+                byName[e] = in.readInt();
+                if (byName[e] < 0 || byName[e] >= count) return null;
+            }
+            return new Segment(dirs, dirModified, dirStart, new String(names, StandardCharsets.UTF_8),
+                    flags, mimes, mimeTable, byName);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // 截断或损坏的索引文件，重新构建
+            return null;
+        }
+    }
+
+    /**
+     * @return path 相对根目录的路径（根目录本身为 ""），不在根目录下时返回 null
+     */
+    private String relativize(Path path) {
+        if (!path.startsWith(root)) return null;
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private Path resolve(String path) {
+        return path.isEmpty() ? root : root.resolve(path);
+    }
+
+    static String join(String parent, String name) {
+        return parent.isEmpty() ? name : parent + "/" + name;
+    }
+
+    static String parentOf(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash < 0 ? "" : path.substring(0, slash);
+    }
+
+    static String nameOf(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 逐字符转为小写，长度不变，使小写副本中的位置与原名称一一对应。
+     */
+    static String fold(String s) {
+        char[] chars = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char lower = Character.toLowerCase(c);
+            if (lower != c) {
+                if (chars == null) chars = s.toCharArray();
+                chars[i] = lower;
+            }
+        }
+        return chars != null ? new String(chars) : s;
+    }
+}
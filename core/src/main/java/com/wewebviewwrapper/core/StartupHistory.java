@@ -0,0 +1,81 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 最近若干次启动的时间线（{@link StartupTrace}），每行一次启动，保存在 filesDir 下的文本文件中。
+ * 写入时整体重写临时文件后原子重命名，进程在写入中途被杀死不会损坏已有记录。
+ */
+public final class StartupHistory {
+
+    public static final String FILE_NAME = "startup-traces.tsv";
+
+    private final File file;
+    private final int capacity;
+
+    /**
+     * @param capacity 保留的启动次数，超出时丢弃最旧的记录
+     */
+    public StartupHistory(File file, int capacity) {
+        this.file = file;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return 位于 filesDir/{@link LogJournal#DIR_NAME} 下、保留 capacity 次启动的记录
+     */
+    public static StartupHistory in(File filesDir, int capacity) {
+        return new StartupHistory(new File(new File(filesDir, LogJournal.DIR_NAME), FILE_NAME), capacity);
+    }
+
+    /**
+     * @return 按时间从旧到新排列的启动记录，文件不存在时为空列表
+     */
+    public synchronized List<StartupTrace> load() throws IOException {
+        List<StartupTrace> traces = new ArrayList<>();
+        if (!file.isFile()) return traces;
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            StartupTrace trace = StartupTrace.parse(line);
+            if (trace != null) traces.add(trace);
+        }
+        return traces;
+    }
+
+    public synchronized void append(StartupTrace trace) throws IOException {
+        List<StartupTrace> traces = load();
+        traces.add(trace);
+        StringBuilder sb = new StringBuilder(traces.size() * 256);
+        for (StartupTrace t : traces.subList(Math.max(0, traces.size() - capacity), traces.size())) {
+            sb.append(t.toLine()).append('\n');
+        }
+        File dir = file.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory: " + dir);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return 每次启动一行的对比摘要（新的在前），没有记录时为空字符串
+     */
+    public String summary() throws IOException {
+        List<StartupTrace> traces = load();
+        StringBuilder sb = new StringBuilder(traces.size() * 80);
+        for (int i = traces.size() - 1; i >= 0; i--) {
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(traces.get(i).summaryLine());
+        }
+        return sb.toString();
+    }
+}
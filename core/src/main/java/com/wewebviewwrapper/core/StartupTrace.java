@@ -0,0 +1,177 @@
+package com.wewebviewwrapper.core;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 一次启动的阶段时间线：从进程启动 / Application 与 Activity 的 onCreate 到页面的首次内容绘制，每个阶段记录一次到达时刻。
+ * 时刻由调用方以单调时钟（Android 上为 SystemClock.elapsedRealtimeNanos）提供，同一阶段只保留第一次标记，
+ * 可从主线程、WebView IO 线程与 JavaScript 桥接线程并发调用。
+ * 持久化为一行文本（见 {@link #toLine()}），由 {@link StartupHistory} 保留最近若干次启动以便对比。
+ */
+public final class StartupTrace {
+
+    /**
+     * 启动阶段，按通常的先后顺序排列。
+     */
+    public enum Phase {
+        PROCESS_START, APP_CREATE, WEB_CACHE_READY, ON_CREATE, PROVIDER_READY, CONTENT_VIEW_SET, WEB_VIEW_READY,
+        LOAD_URL, ASSETS_WARMED, FIRST_INTERCEPT, PAGE_STARTED, PAGE_VISIBLE, FIRST_PAINT, FIRST_CONTENTFUL_PAINT, PAGE_FINISHED;
+
+        final String label = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    /** 启动时的墙上时间，仅用于显示。 */
+    public final long timeMillis;
+    // 启动时 WebView 磁盘缓存是否保留了上次运行的条目；缓存在后台整理，时间线创建后才可能确定
+    private volatile boolean warm;
+    private final AtomicLongArray marks = new AtomicLongArray(PHASES.length);
+
+    public StartupTrace(long timeMillis, boolean warm) {
+        this.timeMillis = timeMillis;
+        this.warm = warm;
+    }
+
+    /**
+     * @return 启动时 WebView 磁盘缓存是否保留了上次运行的条目
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public void setWarm(boolean warm) {
+        this.warm = warm;
+    }
+
+    /**
+     * 记录阶段到达时刻，该阶段已记录过时忽略。
+     * @param nanos 单调时钟的纳秒时刻，必须大于 0
+     * @return 本次是否为该阶段的首次记录
+     */
+    public boolean mark(Phase phase, long nanos) {
+        return nanos > 0 && marks.compareAndSet(phase.ordinal(), 0, nanos);
+    }
+
+    public boolean has(Phase phase) {
+        return marks.get(phase.ordinal()) != 0;
+    }
+
+    /**
+     * @return 阶段相对于时间线起点（最早记录的阶段）的微秒数，未记录时返回 -1
+     */
+    public long offsetMicros(Phase phase) {
+        long nanos = marks.get(phase.ordinal());
+        return nanos == 0 ? -1 : (nanos - origin()) / 1000;
+    }
+
+    private long origin() {
+        long origin = Long.MAX_VALUE;
+        for (int i = 0; i < PHASES.length; i++) {
+            long nanos = marks.get(i);
+            if (nanos != 0 && nanos < origin) origin = nanos;
+        }
+        return origin;
+    }
+
+    /**
+     * @return 多行时间线：各阶段按时刻排序，列出相对起点的时间与距上一阶段的间隔
+     */
+    public String timeline() {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(header());
+        long previous = 0;
+        for (Phase phase : sortedPhases()) {
+            long offset = offsetMicros(phase);
+            sb.append(String.format(Locale.ROOT, "%n  %-24s %8.1f ms  (+%.1f)", phase.label,
+                    offset / 1000.0, (offset - previous) / 1000.0));
+            previous = offset;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return 单行摘要：几个关键阶段的时间，便于多次启动逐行对比
+     */
+    public String summaryLine() {
+        StringBuilder sb = new StringBuilder(128).append(header());
+        for (Phase phase : new Phase[]{Phase.CONTENT_VIEW_SET, Phase.FIRST_INTERCEPT, Phase.PAGE_VISIBLE,
+                Phase.FIRST_CONTENTFUL_PAINT}) {
+            long offset = offsetMicros(phase);
+            sb.append(' ').append(shortLabel(phase)).append('=')
+                    .append(offset < 0 ? "-" : String.format(Locale.ROOT, "%.0f", offset / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    private String header() {
+        return new SimpleDateFormat("MM-dd HH:mm:ss", Locale.ROOT).format(new Date(timeMillis))
+                + (warm ? " warm" : " cold");
+    }
+
+    private static String shortLabel(Phase phase) {
+        switch (phase) {
+            case CONTENT_VIEW_SET: return "view";
+            case FIRST_INTERCEPT: return "intercept";
+            case PAGE_VISIBLE: return "visible";
+            case FIRST_CONTENTFUL_PAINT: return "fcp";
+            default: return phase.label;
+        }
+    }
+
+    private Phase[] sortedPhases() {
+        int count = 0;
+        Phase[] phases = new Phase[PHASES.length];
+        for (Phase phase : PHASES) {
+            if (has(phase)) phases[count++] = phase;
+        }
+        Phase[] sorted = Arrays.copyOf(phases, count);
+        Arrays.sort(sorted, (a, b) -> Long.compare(marks.get(a.ordinal()), marks.get(b.ordinal())));
+        return sorted;
+    }
+
+    /**
+     * 序列化为一行：墙上时间、冷热标记与各阶段相对起点的微秒数，以制表符分隔。
+     */
+    public String toLine() {
+        StringBuilder sb = new StringBuilder(256).append(timeMillis).append('\t').append(warm ? 1 : 0);
+        for (Phase phase : PHASES) {
+            long offset = offsetMicros(phase);
+            if (offset >= 0) sb.append('\t').append(phase.label).append('=').append(offset);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解析 {@link #toLine()} 的输出，忽略未知阶段（兼容之后增删阶段的版本）。
+     * @return 解析结果，格式错误时返回 null
+     */
+    public static StartupTrace parse(String line) {
+        String[] fields = line.split("\t");
+        if (fields.length < 2) return null;
+        try {
+            StartupTrace trace = new StartupTrace(Long.parseLong(fields[0]), "1".equals(fields[1]));
+            for (int i = 2; i < fields.length; i++) {
+                int eq = fields[i].indexOf('=');
+                if (eq < 0) continue;
+                Phase phase = phaseOf(fields[i].substring(0, eq));
+                // 以 1 纳秒为起点，偏移为 0 的阶段也能记录
+                if (phase != null) trace.mark(phase, Long.parseLong(fields[i].substring(eq + 1)) * 1000 + 1);
+            }
+            return trace;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Phase phaseOf(String label) {
+        for (Phase phase : PHASES) {
+            if (phase.label.equals(label)) return phase;
+        }
+        return null;
+    }
+}
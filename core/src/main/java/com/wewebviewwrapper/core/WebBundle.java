@@ -0,0 +1,72 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * 已安装到 filesDir 的某个版本的网页包：目录下的 bundle.index（与 assets 资源索引格式相同）、
+ * 可选的 bundle.preload（关键子资源图，见 {@link PreloadGraph}）与 files/ 中的资源。
+ * 索引条目的 assetPath 以 "bundle/&lt;版本&gt;/" 为前缀，只用作内存缓存的键，保证不同版本的同名资源互不混淆；
+ * 实际内容通过 {@link #file(AssetIndex.Entry)} 读取。
+ */
+public final class WebBundle implements BundleUpdater.Base {
+
+    static final String INDEX_FILE = "bundle.index";
+    static final String PRELOAD_FILE = "bundle.preload";
+    static final String FILES_DIR = "files";
+
+    public final String version;
+    public final AssetIndex index;
+    public final PreloadGraph preload;
+    /** 安装时间，作为该版本所有响应的 Last-Modified。 */
+    public final String lastModified;
+    private final File filesRoot;
+
+    private WebBundle(String version, AssetIndex index, PreloadGraph preload, File filesRoot, String lastModified) {
+        this.version = version;
+        this.index = index;
+        this.preload = preload;
+        this.filesRoot = filesRoot;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * 打开版本目录并加载其索引。
+     */
+    static WebBundle open(File dir, String version) throws IOException {
+        AssetIndex index;
+        try (InputStream in = new FileInputStream(new File(dir, INDEX_FILE))) {
+            index = AssetIndex.load(in, "bundle/" + version);
+        }
+        PreloadGraph preload = PreloadGraph.EMPTY;
+        File preloadFile = new File(dir, PRELOAD_FILE);
+        if (preloadFile.isFile()) {
+            try (InputStream in = new FileInputStream(preloadFile)) {
+                preload = PreloadGraph.load(in);
+            }
+        }
+        return new WebBundle(version, index, preload, new File(dir, FILES_DIR), CachePolicy.httpDate(dir.lastModified()));
+    }
+
+    public File file(AssetIndex.Entry entry) {
+        return new File(filesRoot, entry.path);
+    }
+
+    @Override
+    public String version() {
+        return version;
+    }
+
+    @Override
+    public AssetIndex index() {
+        return index;
+    }
+
+    @Override
+    public byte[] read(AssetIndex.Entry entry) throws IOException {
+        return Files.readAllBytes(file(entry).toPath());
+    }
+}
@@ -0,0 +1,135 @@
+package com.wewebviewwrapper.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebView 磁盘缓存（HTTP 缓存与 V8 代码缓存）的跨启动保留策略：缓存默认保留，下次启动即为热启动；
+ * 内容版本（APK 或网页包）变化时由调用方整体清空，否则按最长保留时间与字节预算淘汰最旧的条目。
+ * 必须在本进程创建第一个 WebView 之前调用，此时缓存后端尚未打开，删除条目文件只会让对应请求变为未命中。
+ * <p>
+ * Chromium 的 simple cache 以 &lt;16 位十六进制哈希&gt;_0 / _1 / _s 文件保存每个条目，索引会在打开时自行校正，
+ * 因此这里只删除条目文件，同一哈希的文件成组淘汰。simple cache 不更新文件的访问时间，以修改时间近似最近使用时间。
+ */
+public final class WebCacheBudget {
+
+    /**
+     * 一次启动时的缓存状态。
+     */
+    public static final class Result {
+        /** 淘汰后仍有缓存条目，即本次为热启动。 */
+        public final boolean warm;
+        public final long bytes;
+        public final int evicted;
+        public final long evictedBytes;
+
+        Result(boolean warm, long bytes, int evicted, long evictedBytes) {
+            this.warm = warm;
+            this.bytes = bytes;
+            this.evicted = evicted;
+            this.evictedBytes = evictedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return (warm ? "warm" : "cold") + " web cache, " + bytes / 1024 + " KB, "
+                    + evicted + " entries (" + evictedBytes / 1024 + " KB) evicted";
+        }
+    }
+
+    private static final class Entry {
+        final List<File> files = new ArrayList<>(3);
+        long bytes;
+        long lastModified;
+    }
+
+    private final List<File> roots;
+    private final long budgetBytes;
+    private final long maxAgeMillis;
+
+    /**
+     * @param roots WebView 缓存目录（不存在的目录会被忽略）
+     * @param budgetBytes 全部目录合计的字节预算
+     * @param maxAgeMillis 条目最长保留时间
+     */
+    public WebCacheBudget(List<File> roots, long budgetBytes, long maxAgeMillis) {
+        this.roots = roots;
+        this.budgetBytes = budgetBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * 淘汰超过保留时间的条目，再按修改时间从旧到新淘汰，直到总大小不超过预算。
+     */
+    public Result trim(long nowMillis) {
+        Map<String, Entry> entries = new HashMap<>();
+        long[] total = new long[1];
+        for (File root : roots) {
+            collect(root, entries, total);
+        }
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort((a, b) -> Long.compare(a.lastModified, b.lastModified));
+        long bytes = total[0];
+        int evicted = 0;
+        long evictedBytes = 0;
+        for (Entry entry : sorted) {
+            if (bytes <= budgetBytes && nowMillis - entry.lastModified <= maxAgeMillis) break;
+            for (File file : entry.files) {
+                file.delete();
+            }
+            bytes -= entry.bytes;
+            evicted++;
+            evictedBytes += entry.bytes;
+        }
+        return new Result(evicted < sorted.size(), bytes, evicted, evictedBytes);
+    }
+
+    /**
+     * 删除全部缓存目录。
+     */
+    public void clear() {
+        for (File root : roots) {
+            BundleStore.deleteRecursively(root);
+        }
+    }
+
+    private static void collect(File dir, Map<String, Entry> entries, long[] total) {
+        File[] children = dir.listFiles();
+        if (children == null) return;
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collect(child, entries, total);
+                continue;
+            }
+            long length = child.length();
+            total[0] += length;
+            String name = child.getName();
+            if (!isEntryFile(name)) continue;
+            String key = dir.getPath() + '/' + name.substring(0, 16);
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(key, entry);
+            }
+            entry.files.add(child);
+            entry.bytes += length;
+            entry.lastModified = Math.max(entry.lastModified, child.lastModified());
+        }
+    }
+
+    /**
+     * simple cache 的条目文件名：16 位十六进制哈希、下划线与流编号（0、1 或 s）。
+     */
+    static boolean isEntryFile(String name) {
+        if (name.length() != 18 || name.charAt(16) != '_') return false;
+        char stream = name.charAt(17);
+        if (stream != '0' && stream != '1' && stream != 's') return false;
+        for (int i = 0; i < 16; i++) {
+            if (Character.digit(name.charAt(i), 16) < 0) return false;
+        }
+        return true;
+    }
+}